@@ -0,0 +1,58 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberRow;
+import study.querydsl.service.MemberBulkLoader;
+
+import java.util.stream.IntStream;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트 + 인메모리 H2 데이터.
+ * 회원/팀 수는 JMH -p 옵션(ex. -p members=100000)으로 조절
+ */
+@State(Scope.Benchmark)
+public class MemberDataState {
+
+    @Param({"10000"})
+    public int members;
+
+    @Param({"10"})
+    public int teams;
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=1000",
+                        "decorator.datasource.enabled=false",   // p6spy 로그 비용 제외
+                        "logging.level.root=warn")
+                .run();
+
+        context.getBean(MemberBulkLoader.class).load(IntStream.range(0, members)
+                .mapToObj(i -> new MemberRow("member" + i, i % 100, "team" + (i % teams))));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,78 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberPageOptions;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 검색 경로별 비교.
+ * page 파라미터로 얕은/깊은 페이지에서 SINGLE_QUERY 와 ID_FIRST 차이를 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberSearchBenchmark {
+
+    @Param({"0", "200"})
+    public int page;
+
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private MemberSearchCondition condition;
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setUp(MemberDataState data) {
+        memberRepository = data.getBean(MemberRepository.class);
+        memberJpaRepository = data.getBean(MemberJpaRepository.class);
+        condition = new MemberSearchCondition(null, null, 10, 80);
+        pageRequest = PageRequest.of(page, 20);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> search() {
+        return memberRepository.search(new MemberSearchCondition(null, "team1", 10, 40));
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> jpaSearchWhere() {
+        return memberJpaRepository.search(new MemberSearchCondition(null, "team1", 10, 40));
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> jpaSearchBuilder() {
+        return memberJpaRepository.searchByBuilder(new MemberSearchCondition(null, "team1", 10, 40));
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, pageRequest,
+                new MemberPageOptions(MemberPageOptions.PagingStrategy.SINGLE_QUERY));
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplexIdFirst() {
+        return memberRepository.searchPageComplex(condition, pageRequest,
+                new MemberPageOptions(MemberPageOptions.PagingStrategy.ID_FIRST));
+    }
+}
@@ -0,0 +1,77 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberProjections;
+import study.querydsl.dto.MemberQueryProjectionDto;
+import study.querydsl.dto.QMemberQueryProjectionDto;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 같은 쿼리에서 DTO 프로젝션 방식만 바꿔서 비교 (100k 행: -p members=100000)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProjectionBenchmark {
+
+    private JPAQueryFactory queryFactory;
+
+    @Setup
+    public void setUp(MemberDataState data) {
+        queryFactory = new JPAQueryFactory(data.getBean(EntityManager.class));
+    }
+
+    @Benchmark
+    public List<MemberDto> bean() {
+        return queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fields() {
+        return queryFactory
+                .select(Projections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor() {
+        return queryFactory
+                .select(Projections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> direct() {
+        return queryFactory
+                .select(MemberProjections.memberDto(member))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberQueryProjectionDto> queryProjection() {
+        return queryFactory
+                .select(new QMemberQueryProjectionDto(member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+}
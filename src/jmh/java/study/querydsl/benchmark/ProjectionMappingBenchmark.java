@@ -0,0 +1,97 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberProjections;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberQueryProjectionDto;
+
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * DB 없이 행(Object[]) -> DTO 변환 비용만 비교. 쿼리 시간에 묻히는 리플렉션 비용을 따로 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProjectionMappingBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private Object[][] memberRows;
+    private Object[][] memberTeamRows;
+
+    private final FactoryExpression<MemberDto> bean = Projections.bean(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> fields = Projections.fields(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> constructor = Projections.constructor(MemberDto.class, member.username, member.age);
+    private final QMemberQueryProjectionDto queryProjection = new QMemberQueryProjectionDto(member.username, member.age);
+    private final FactoryExpression<MemberDto> direct = MemberProjections.memberDto(member);
+    private final FactoryExpression<MemberTeamDto> memberTeamConstructor = Projections.constructor(MemberTeamDto.class,
+            member.id, member.username, member.age, team.id, team.name);
+    private final FactoryExpression<MemberTeamDto> memberTeamDirect = MemberProjections.memberTeamDto(member, team);
+
+    @Setup
+    public void setUp() {
+        memberRows = new Object[rows][];
+        memberTeamRows = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            memberRows[i] = new Object[]{"member" + i, i % 100};
+            memberTeamRows[i] = new Object[]{(long) i, "member" + i, i % 100, (long) (i % 10), "team" + (i % 10)};
+        }
+    }
+
+    @Benchmark
+    public void bean(Blackhole blackhole) {
+        map(bean, memberRows, blackhole);
+    }
+
+    @Benchmark
+    public void fields(Blackhole blackhole) {
+        map(fields, memberRows, blackhole);
+    }
+
+    @Benchmark
+    public void constructor(Blackhole blackhole) {
+        map(constructor, memberRows, blackhole);
+    }
+
+    @Benchmark
+    public void queryProjection(Blackhole blackhole) {
+        map(queryProjection, memberRows, blackhole);
+    }
+
+    @Benchmark
+    public void direct(Blackhole blackhole) {
+        map(direct, memberRows, blackhole);
+    }
+
+    @Benchmark
+    public void memberTeamConstructor(Blackhole blackhole) {
+        map(memberTeamConstructor, memberTeamRows, blackhole);
+    }
+
+    @Benchmark
+    public void memberTeamDirect(Blackhole blackhole) {
+        map(memberTeamDirect, memberTeamRows, blackhole);
+    }
+
+    private static void map(FactoryExpression<?> projection, Object[][] rows, Blackhole blackhole) {
+        for (Object[] row : rows) {
+            blackhole.consume(projection.newInstance(row));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberView;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티 조회 vs 조회 전용 모델(MemberView) vs StatelessSession 스캔.
+ * 힙/GC 차이는 gc 프로파일러로 확인: ./gradlew jmh -Pjmh.includes=ReadModel -Pjmh.profilers=gc
+ * (gc.alloc.rate.norm = 호출당 할당 바이트)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadModelBenchmark {
+
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate transaction;
+
+    @Setup
+    public void setUp(MemberDataState data) {
+        memberJpaRepository = data.getBean(MemberJpaRepository.class);
+        // 운영 조회처럼 기본(읽기/쓰기) 트랜잭션: read-only 면 하이버네이트가 스냅샷을 만들지 않아 엔티티 쪽 비용이 줄어 보임
+        transaction = new TransactionTemplate(data.getBean(PlatformTransactionManager.class));
+    }
+
+    // 영속성 컨텍스트에 엔티티 + 스냅샷까지 올라가고 커밋 때 dirty checking
+    @Benchmark
+    public List<Member> entities() {
+        return transaction.execute(status -> memberJpaRepository.findAllQuerydsl());
+    }
+
+    @Benchmark
+    public List<MemberView> views() {
+        return transaction.execute(status -> memberJpaRepository.findAllViews());
+    }
+
+    // 리스트도 만들지 않고 한 행씩 소비
+    @Benchmark
+    public long statelessScan(Blackhole blackhole) {
+        return memberJpaRepository.scanViews(blackhole::consume);
+    }
+}
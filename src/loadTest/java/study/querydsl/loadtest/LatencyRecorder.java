@@ -0,0 +1,70 @@
+package study.querydsl.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 클라이언트 스레드 하나가 쓰는 응답 시간 기록 (스레드 간 공유하지 않음 -> 동기화 불필요).
+ * 끝나면 merge 로 합쳐서 백분위수를 계산한다.
+ */
+class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = nanos;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.size; i++) {
+            record(other.latencies[i]);
+        }
+        errors += other.errors;
+    }
+
+    long getRequests() {
+        return size + errors;
+    }
+
+    Map<String, Object> summary(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", getRequests());
+        summary.put("errors", errors);
+        summary.put("throughputPerSecond", round(getRequests() / seconds));
+        summary.put("p50Millis", millis(percentile(sorted, 0.50)));
+        summary.put("p99Millis", millis(percentile(sorted, 0.99)));
+        summary.put("p999Millis", millis(percentile(sorted, 0.999)));
+        summary.put("maxMillis", millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0));
+        return summary;
+    }
+
+    // nearest-rank
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,167 @@
+package study.querydsl.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.BulkLoadResult;
+import study.querydsl.dto.MemberRow;
+import study.querydsl.service.MemberBulkLoader;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+/**
+ * /v1~/v3/members 부하 테스트.
+ * 인메모리 H2 로 앱을 띄우고(랜덤 포트) 회원/팀을 적재한 뒤, N 개의 클라이언트 스레드가 가중치대로 요청을 보낸다.
+ * warmup 구간은 버리고 측정 구간의 처리량, p50/p99/p999 를 JSON 으로 남긴다.
+ *
+ * ./gradlew loadTest -Pload.clients=32 -Pload.duration=60 -Pload.mix=v1=1,v2=1,v3=8
+ */
+public class MemberLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int members = Integer.getInteger("load.members", 100_000);
+        int teams = Integer.getInteger("load.teams", 100);
+        int clients = Integer.getInteger("load.clients", 16);
+        int warmupSeconds = Integer.getInteger("load.warmup", 5);
+        int durationSeconds = Integer.getInteger("load.duration", 30);
+        long seed = Long.getLong("load.seed", 42L);
+        RequestMix mix = new RequestMix(System.getProperty("load.mix", "v1=2,v2=3,v3=5"), teams);
+        Path report = Path.of(System.getProperty("load.report", "build/reports/load-test/report.json"));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=1000",
+                        "spring.jpa.open-in-view=false",
+                        "decorator.datasource.enabled=false",   // p6spy 로그 비용 제외
+                        "logging.level.root=warn")
+                .run(args);
+        try {
+            BulkLoadResult seeded = context.getBean(MemberBulkLoader.class).load(IntStream.range(0, members)
+                    .mapToObj(i -> new MemberRow("member" + i, i % 100, "team" + (i % teams))));
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+
+            Map<String, Object> result = run(URI.create("http://localhost:" + port), mix, clients, seed,
+                    Duration.ofSeconds(warmupSeconds), Duration.ofSeconds(durationSeconds));
+
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("members", members);
+            config.put("teams", teams);
+            config.put("clients", clients);
+            config.put("warmupSeconds", warmupSeconds);
+            config.put("durationSeconds", durationSeconds);
+            config.put("mix", System.getProperty("load.mix", "v1=2,v2=3,v3=5"));
+            config.put("seed", seed);
+            config.put("seedRowsPerSecond", Math.round(seeded.getRowsPerSecond()));
+
+            Map<String, Object> output = new LinkedHashMap<>();
+            output.put("config", config);
+            output.putAll(result);
+            write(report, output);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Map<String, Object> run(URI baseUri, RequestMix mix, int clients, long seed,
+                                           Duration warmup, Duration duration) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+
+        List<Map<String, LatencyRecorder>> recorders = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            Map<String, LatencyRecorder> byEndpoint = new HashMap<>();
+            mix.endpoints().forEach(endpoint -> byEndpoint.put(endpoint, new LatencyRecorder()));
+            recorders.add(byEndpoint);
+
+            Random random = new Random(seed + c);
+            Thread client = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < measureUntil) {
+                        String endpoint = mix.nextEndpoint(random);
+                        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(mix.nextQuery(endpoint, random)))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long started = System.nanoTime();
+                        boolean ok = send(httpClient, request);
+                        long finished = System.nanoTime();
+                        if (started < measureFrom) {
+                            continue;   // warmup
+                        }
+                        if (ok) {
+                            byEndpoint.get(endpoint).record(finished - started);
+                        } else {
+                            byEndpoint.get(endpoint).error();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            client.start();
+        }
+        done.await();
+
+        double seconds = duration.toNanos() / 1_000_000_000.0;
+        LatencyRecorder total = new LatencyRecorder();
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (String endpoint : mix.endpoints()) {
+            LatencyRecorder merged = new LatencyRecorder();
+            recorders.forEach(byEndpoint -> merged.merge(byEndpoint.get(endpoint)));
+            total.merge(merged);
+            endpoints.put(endpoint, merged.summary(seconds));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", total.summary(seconds));
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    private static boolean send(HttpClient httpClient, HttpRequest request) {
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void write(Path report, Map<String, Object> output) throws IOException {
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(report.toFile(), output);
+        System.out.println(objectMapper.writeValueAsString(output));
+    }
+}
@@ -0,0 +1,71 @@
+package study.querydsl.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * v1/v2/v3 가중치 조합 (ex. "v1=1,v2=3,v3=6") + 요청마다 임의의 검색 조건.
+ * 같은 seed 면 같은 요청 순서가 만들어진다.
+ */
+class RequestMix {
+
+    private final Map<String, Integer> weights;
+    private final int totalWeight;
+    private final int teams;
+
+    RequestMix(String spec, int teams) {
+        this.weights = parse(spec);
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        this.teams = teams;
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("request mix has no weight: " + spec);
+        }
+    }
+
+    List<String> endpoints() {
+        return new ArrayList<>(weights.keySet());
+    }
+
+    String nextEndpoint(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    // 조건은 InitMember 데이터와 같은 모양: team0..teamN, 나이 0~99
+    String nextQuery(String endpoint, Random random) {
+        StringBuilder query = new StringBuilder();
+        if (random.nextInt(2) == 0) {
+            query.append("&teamName=team").append(random.nextInt(teams));
+        }
+        int ageGoe = random.nextInt(80);
+        query.append("&ageGoe=").append(ageGoe);
+        if (random.nextInt(2) == 0) {
+            query.append("&ageLoe=").append(ageGoe + 1 + random.nextInt(20));
+        }
+        if (!endpoint.equals("v1")) {
+            query.append("&page=").append(random.nextInt(10)).append("&size=20");
+        }
+        return "/" + endpoint + "/members?" + query.substring(1);
+    }
+
+    private static Map<String, Integer> parse(String spec) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2 || !pair[0].matches("v[123]")) {
+                throw new IllegalArgumentException("invalid request mix entry: " + part);
+            }
+            weights.put(pair[0], Integer.parseInt(pair[1]));
+        }
+        return weights;
+    }
+}
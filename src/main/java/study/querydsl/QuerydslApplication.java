@@ -1,9 +1,10 @@
 package study.querydsl;
 
-import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import study.querydsl.metrics.MeteredJPAQueryFactory;
+import study.querydsl.metrics.QueryMetrics;
 
 import javax.persistence.EntityManager;
 
@@ -14,9 +15,10 @@ public class QuerydslApplication {
 		SpringApplication.run(QuerydslApplication.class, args);
 	}
 
-//	// 이걸 설정하고 사용하는 곳에서 주입받아 사용해도 됨
-//	@Bean
-//	JPAQueryFactory jpaQueryFactory(EntityManager em){
-//		return new JPAQueryFactory(em);
-//	}
+	// 리포지토리들이 공유하는 JPAQueryFactory (쿼리 이름은 호출 위치에서 named(...) 로 지정)
+	// (주입되는 EntityManager 는 트랜잭션별 EntityManager 로 위임하는 프록시라 싱글톤이어도 안전)
+	@Bean
+	MeteredJPAQueryFactory jpaQueryFactory(EntityManager em, QueryMetrics queryMetrics){
+		return new MeteredJPAQueryFactory(em, queryMetrics);
+	}
 }
@@ -0,0 +1,740 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberView;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangedEvent;
+import study.querydsl.event.MemberBulkChangedEvent;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.TeamJpaRepository;
+import study.querydsl.repository.TeamRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 회원 검색용 인메모리 컬럼형 인덱스 (querydsl.member.columnar-index.enabled=true 일 때만).
+ * - 회원 id 순으로 나눈 세그먼트(SEGMENT_SIZE 행)마다 컬럼별 기본형 배열: long[] id, int[] age, int[] 팀 코드(사전 인코딩), username
+ * - 세그먼트마다 나이순 정렬 인덱스(범위 조건은 이분 탐색), 팀별 BitSet
+ * Member/Team 변경은 커밋 직후 바뀐 행만 다시 읽어서 해당 세그먼트만 복사해 바꾼 새 스냅샷으로 교체한다 (copy-on-write).
+ * 다시 읽는 것은 별도 스레드에서 (커밋한 스레드가 자기 커넥션을 잡은 채 새 커넥션을 기다리지 않도록), 밀린 변경은 한 번에 합쳐서 반영.
+ * 대량 적재처럼 어떤 행이 바뀌었는지 모르는 변경만 별도 스레드에서 통째로 다시 만든다.
+ * 커밋~반영 사이 / 전체 재구성 대기 중에는 empty -> 호출한 쪽이 DB 로 조회.
+ * 결과는 회원 id 순서.
+ */
+@Slf4j
+@Component
+public class MemberColumnarIndex {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    private final boolean enabled;
+    private final MemberJpaRepository memberJpaRepository;
+    private final TeamJpaRepository teamJpaRepository;
+    private final TeamRepository teamRepository;
+    private final TransactionTemplate transaction;
+    private final Timer rebuildTimer;
+    private final Timer applyTimer;
+    private final ExecutorService rebuilder;
+
+    private final AtomicInteger committing = new AtomicInteger();   // 커밋했지만 아직 반영 전인 트랜잭션 수
+    private final AtomicLong fullChanges = new AtomicLong();        // 전체 재구성이 필요한 변경 횟수
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Object pendingLock = new Object();
+    private Changes pending;                        // 아직 반영을 시작하지 않은 변경 (pendingLock 으로 동기화)
+    private int pendingCommits;                     // pending 에 합쳐진 트랜잭션 수
+    private final Object rebuildLock = new Object();
+    private List<Changes> appliedDuringRebuild;     // 재구성 중에 반영한 변경 (this 로 동기화)
+    private volatile Snapshot snapshot;
+
+    public MemberColumnarIndex(@Value("${querydsl.member.columnar-index.enabled:false}") boolean enabled,
+                               MemberJpaRepository memberJpaRepository, TeamJpaRepository teamJpaRepository,
+                               TeamRepository teamRepository, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.memberJpaRepository = memberJpaRepository;
+        this.teamJpaRepository = teamJpaRepository;
+        this.teamRepository = teamRepository;
+        // read-only 로 열면 replica 로 라우팅될 수 있음 -> 지연된 데이터로 "최신" 스냅샷을 만들지 않도록 primary 에서 읽음
+        // (변경 반영은 StatelessSession 으로 primary 에서 읽음)
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.rebuildTimer = Timer.builder("querydsl.member.columnar-index.rebuild").register(meterRegistry);
+        this.applyTimer = Timer.builder("querydsl.member.columnar-index.apply").register(meterRegistry);
+        Gauge.builder("querydsl.member.columnar-index.rows", this, index -> {
+                    Snapshot current = index.snapshot;
+                    return current != null ? current.size : 0;
+                })
+                .register(meterRegistry);
+        this.rebuilder = enabled ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-columnar-index");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 커밋된 변경이 모두 반영된 스냅샷인지
+    public boolean isCurrent() {
+        return current(snapshot);
+    }
+
+    private boolean current(Snapshot current) {
+        return current != null && current.fullChanges == fullChanges.get() && committing.get() == 0;
+    }
+
+    public Optional<List<MemberTeamDto>> search(MemberSearchCondition condition) {
+        MemberSearchCondition normalized = condition.normalized();
+        Snapshot current = servable(normalized);
+        if (current == null) {
+            return Optional.empty();
+        }
+        Integer teamCode = current.teams.codeOf(normalized.getTeamName());
+        List<MemberTeamDto> results = new ArrayList<>();
+        for (Segment segment : current.segments) {
+            BitSet rows = segment.match(normalized, teamCode);
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                results.add(segment.dto(row, current.teams));
+            }
+        }
+        return Optional.of(results);
+    }
+
+    public Optional<Page<MemberTeamDto>> page(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition normalized = condition.normalized();
+        Snapshot current = servable(normalized);
+        if (current == null) {
+            return Optional.empty();
+        }
+        Integer teamCode = current.teams.codeOf(normalized.getTeamName());
+        List<MemberTeamDto> content = new ArrayList<>(pageable.getPageSize());
+        long total = 0;
+        for (Segment segment : current.segments) {
+            BitSet rows = segment.match(normalized, teamCode);
+            int count = rows.cardinality();
+            if (content.size() < pageable.getPageSize() && total + count > pageable.getOffset()) {
+                long skip = Math.max(0, pageable.getOffset() - total);
+                for (int row = rows.nextSetBit(0); row >= 0 && content.size() < pageable.getPageSize(); row = rows.nextSetBit(row + 1)) {
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        content.add(segment.dto(row, current.teams));
+                    }
+                }
+            }
+            total += count;
+        }
+        return Optional.of(new PageImpl<>(content, pageable, total));
+    }
+
+    // 전문 검색 조건은 DB 인덱스로만 처리, 쓰기 트랜잭션 안에서는 아직 커밋 안 된 변경이 안 보이므로 DB 로
+    private Snapshot servable(MemberSearchCondition condition) {
+        if (!enabled || condition.getUsernameKeyword() != null || inWriteTransaction()) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        return current(current) ? current : null;
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (enabled) {
+            scheduleRebuild();
+        }
+    }
+
+    // 바뀐 id 를 트랜잭션 단위로 모아 두고 커밋 직후 한 번에 반영
+    // 커밋 전에는 다른 트랜잭션에 변경이 보이지 않으므로 스냅샷을 그대로 사용해도 됨
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Changes changes = new Changes();
+            changes.add(event);
+            changes.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            return;
+        }
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new Changes();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        changes.add(event);
+    }
+
+    // 반영은 rebuilder 스레드에서. 아직 시작 안 한 반영이 있으면 거기에 합침
+    // 합쳐진 트랜잭션은 반영이 끝날 때까지 committing 에 남아 있음 (그 전에는 스냅샷으로 응답하지 않음)
+    private void enqueue(Changes changes) {
+        boolean submit;
+        synchronized (pendingLock) {
+            submit = pending == null;
+            if (submit) {
+                pending = new Changes();
+            }
+            pending.merge(changes);
+            pendingCommits++;
+        }
+        if (submit) {
+            rebuilder.execute(this::applyPending);
+        }
+    }
+
+    private void applyPending() {
+        Changes changes;
+        int commits;
+        synchronized (pendingLock) {
+            changes = pending;
+            commits = pendingCommits;
+            pending = null;
+            pendingCommits = 0;
+        }
+        try {
+            apply(changes);
+        } catch (RuntimeException e) {
+            log.warn("member columnar index update failed, rebuilding", e);
+            requireRebuild();
+        } finally {
+            committing.addAndGet(-commits);
+        }
+    }
+
+    // 커밋된 행만 다시 읽어서 해당 세그먼트 / 팀 사전만 바꾼 새 스냅샷으로 교체
+    private synchronized void apply(Changes changes) {
+        if (appliedDuringRebuild != null) {
+            appliedDuringRebuild.add(changes);
+        }
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;     // 첫 재구성 전 (재구성이 커밋된 데이터를 읽음)
+        }
+        long started = System.nanoTime();
+        Map<Long, String> teamNames = changes.teamIds.isEmpty()
+                ? Map.of() : teamJpaRepository.findCommittedNames(changes.teamIds);
+        List<MemberView> members = changes.memberIds.isEmpty()
+                ? List.of() : memberJpaRepository.findCommittedViews(changes.memberIds);
+        snapshot = current.with(changes.teamIds, teamNames, changes.memberIds, members);
+        applyTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private void requireRebuild() {
+        fullChanges.incrementAndGet();
+        scheduleRebuild();
+    }
+
+    // 연속된 변경은 한 번의 재구성으로 합침
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("member columnar index rebuild failed", e);
+                }
+            });
+        }
+    }
+
+    // 커밋된 회원을 id 순으로 훑어서 (StatelessSession) 새 스냅샷을 만들고 교체
+    // 훑는 동안 커밋된 변경은 기존 스냅샷에 반영하면서 기록해 두고, 교체한 뒤 새 스냅샷에 다시 반영
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long startFullChanges = fullChanges.get();
+            long started = System.nanoTime();
+            synchronized (this) {
+                appliedDuringRebuild = new ArrayList<>();
+            }
+            try {
+                Builder builder = new Builder();
+                memberJpaRepository.scanViews(builder::add);
+                Map<Long, String> teamNames = new HashMap<>();
+                for (Team team : transaction.execute(status -> teamRepository.findAll())) {
+                    teamNames.put(team.getId(), team.getName());
+                }
+                Snapshot built = builder.build(teamNames, startFullChanges);
+                synchronized (this) {
+                    List<Changes> missed = appliedDuringRebuild;
+                    appliedDuringRebuild = null;
+                    snapshot = built;
+                    try {
+                        missed.forEach(this::apply);
+                    } catch (RuntimeException e) {
+                        snapshot = null;    // 빠진 변경이 있는 스냅샷으로 응답하지 않음
+                        throw e;
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    appliedDuringRebuild = null;
+                }
+            }
+            rebuildTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    // 트랜잭션 하나에서 바뀐 회원/팀 id. 커밋 시작부터 반영이 끝날 때까지는 스냅샷으로 응답하지 않음
+    // REQUIRES_NEW 로 트랜잭션이 중단되면 함께 unbind/bind
+    private class Changes implements TransactionSynchronization {
+        private final Set<Long> memberIds = new HashSet<>();
+        private final Set<Long> teamIds = new HashSet<>();
+        private boolean unknownRows;
+        private boolean counted;
+
+        private void add(EntityChangedEvent event) {
+            if (event instanceof MemberBulkChangedEvent) {
+                List<Long> ids = ((MemberBulkChangedEvent) event).getMemberIds();
+                if (ids.isEmpty()) {
+                    unknownRows = true;     // 어떤 회원이든 바뀌었을 수 있음
+                }
+                memberIds.addAll(ids);
+            } else if (event instanceof MemberChangedEvent) {
+                Long id = ((MemberChangedEvent) event).getMemberId();
+                if (id != null) {
+                    memberIds.add(id);
+                }
+            } else if (event instanceof TeamChangedEvent) {
+                Long id = ((TeamChangedEvent) event).getTeamId();
+                if (id != null) {
+                    teamIds.add(id);
+                }
+            }
+        }
+
+        private void merge(Changes other) {
+            memberIds.addAll(other.memberIds);
+            teamIds.addAll(other.teamIds);
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(MemberColumnarIndex.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(MemberColumnarIndex.this, this);
+        }
+
+        @Override
+        public void beforeCompletion() {
+            startCommit();
+        }
+
+        private void startCommit() {
+            if (!counted) {
+                counted = true;
+                committing.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MemberColumnarIndex.this);
+            startCommit();
+            boolean queued = false;
+            try {
+                if (status == STATUS_ROLLED_BACK) {
+                    return;
+                }
+                if (unknownRows || status == STATUS_UNKNOWN) {
+                    requireRebuild();
+                    return;
+                }
+                enqueue(this);
+                queued = true;      // committing 은 반영이 끝나면 줄임
+            } catch (RuntimeException e) {
+                log.warn("member columnar index update failed, rebuilding", e);
+                requireRebuild();
+            } finally {
+                if (!queued) {
+                    committing.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        private final long fullChanges;         // 이 스냅샷이 반영한 전체 재구성 필요 변경 횟수
+        private final int size;
+        private final Segment[] segments;       // 회원 id 순
+        private final long[] firstIds;          // 세그먼트별 첫 회원 id
+        private final Teams teams;
+
+        private Snapshot(long fullChanges, Segment[] segments, Teams teams) {
+            this.fullChanges = fullChanges;
+            this.segments = segments;
+            this.teams = teams;
+            this.firstIds = new long[segments.length];
+            int size = 0;
+            for (int i = 0; i < segments.length; i++) {
+                firstIds[i] = segments[i].ids[0];
+                size += segments[i].ids.length;
+            }
+            this.size = size;
+        }
+
+        // 바뀐 팀은 사전만, 바뀐 회원은 그 회원이 속한 세그먼트만 새로 만듦 (나머지 세그먼트는 그대로 공유)
+        // 요청한 id 중 다시 읽어서 없는 것은 삭제된 것
+        private Snapshot with(Set<Long> teamIds, Map<Long, String> teamNames, Set<Long> memberIds, List<MemberView> members) {
+            Teams nextTeams = teams.with(teamIds, teamNames, members);
+
+            Map<Integer, NavigableMap<Long, MemberView>> changesBySegment = new TreeMap<>();
+            Map<Long, MemberView> viewById = new HashMap<>();
+            for (MemberView view : members) {
+                viewById.put(view.id(), view);
+            }
+            for (Long id : memberIds) {
+                changesBySegment.computeIfAbsent(segmentOf(id), i -> new TreeMap<>()).put(id, viewById.get(id));
+            }
+
+            List<Segment> next = new ArrayList<>(segments.length + 1);
+            int copied = 0;
+            for (Map.Entry<Integer, NavigableMap<Long, MemberView>> entry : changesBySegment.entrySet()) {
+                int index = entry.getKey();
+                next.addAll(Arrays.asList(segments).subList(copied, Math.max(copied, index)));
+                Segment base = index < segments.length ? segments[index] : Segment.EMPTY;
+                next.addAll(base.with(entry.getValue(), nextTeams));
+                copied = index + 1;
+            }
+            if (copied < segments.length) {
+                next.addAll(Arrays.asList(segments).subList(copied, segments.length));
+            }
+            return new Snapshot(fullChanges, next.toArray(new Segment[0]), nextTeams);
+        }
+
+        // id 가 들어갈 세그먼트 (첫 id 가 id 이하인 마지막 세그먼트, 없으면 0번)
+        private int segmentOf(long id) {
+            int index = Arrays.binarySearch(firstIds, id);
+            return index >= 0 ? index : Math.max(0, -index - 2);
+        }
+    }
+
+    // 팀 사전: 팀 코드 -> 팀 id / 이름. 바뀔 때만 복사 (팀 수만큼이라 작음)
+    private static final class Teams {
+        private final long[] ids;
+        private final String[] names;           // null: 삭제된 팀
+        private final Map<Long, Integer> codeById;
+        private final Map<String, Integer> codeByName;
+
+        private Teams(long[] ids, String[] names) {
+            this.ids = ids;
+            this.names = names;
+            this.codeById = new HashMap<>();
+            this.codeByName = new HashMap<>();
+            for (int code = 0; code < ids.length; code++) {
+                codeById.put(ids[code], code);
+                if (names[code] != null) {
+                    codeByName.put(names[code], code);
+                }
+            }
+        }
+
+        // 팀명 조건이 없으면 null, 없는 팀명이면 -1
+        private Integer codeOf(String teamName) {
+            if (teamName == null) {
+                return null;
+            }
+            return codeByName.getOrDefault(teamName, -1);
+        }
+
+        private int codeOfId(Long teamId) {
+            return teamId != null ? codeById.get(teamId) : -1;
+        }
+
+        // 기존 팀 코드는 그대로 두고 바뀐 팀의 이름만 바꾸거나(삭제: null) 새 팀을 뒤에 추가
+        private Teams with(Set<Long> teamIds, Map<Long, String> teamNames, List<MemberView> members) {
+            boolean changed = !teamIds.isEmpty();
+            for (MemberView view : members) {
+                changed |= view.teamId() != null && !codeById.containsKey(view.teamId());
+            }
+            if (!changed) {
+                return this;
+            }
+            Map<Long, String> nameById = new LinkedHashMap<>();
+            for (int code = 0; code < ids.length; code++) {
+                nameById.put(ids[code], names[code]);
+            }
+            for (Long teamId : teamIds) {
+                nameById.put(teamId, teamNames.get(teamId));
+            }
+            // 팀 이벤트를 못 받은 경우에도 회원의 팀 코드가 있어야 함 (이름은 모름)
+            for (MemberView view : members) {
+                if (view.teamId() != null) {
+                    nameById.putIfAbsent(view.teamId(), null);
+                }
+            }
+            long[] nextIds = new long[nameById.size()];
+            String[] nextNames = new String[nameById.size()];
+            int code = 0;
+            for (Map.Entry<Long, String> team : nameById.entrySet()) {
+                nextIds[code] = team.getKey();
+                nextNames[code] = team.getValue();
+                code++;
+            }
+            return new Teams(nextIds, nextNames);
+        }
+    }
+
+    // 회원 id 순으로 연속된 행 묶음 (불변)
+    private static final class Segment {
+        private static final Segment EMPTY = new Segment(new long[0], new int[0], new int[0], new String[0]);
+
+        private final long[] ids;
+        private final int[] ages;
+        private final int[] teamCodes;          // -1: 팀 없음
+        private final String[] usernames;
+        private final BitSet[] teamRows;        // 팀 코드 -> 소속 회원 행
+        private final int[] ageOrder;           // 나이(, 행) 순으로 정렬한 행 번호
+        private final int[] sortedAges;         // ageOrder 순서의 나이
+
+        private Segment(long[] ids, int[] ages, int[] teamCodes, String[] usernames) {
+            this.ids = ids;
+            this.ages = ages;
+            this.teamCodes = teamCodes;
+            this.usernames = usernames;
+            int size = ids.length;
+
+            int maxCode = -1;
+            for (int code : teamCodes) {
+                maxCode = Math.max(maxCode, code);
+            }
+            this.teamRows = new BitSet[maxCode + 1];
+            for (int row = 0; row < size; row++) {
+                int code = teamCodes[row];
+                if (code >= 0) {
+                    if (teamRows[code] == null) {
+                        teamRows[code] = new BitSet(size);
+                    }
+                    teamRows[code].set(row);
+                }
+            }
+
+            // (나이, 행) 을 long 하나로 묶어 기본형 정렬
+            long[] keys = new long[size];
+            for (int row = 0; row < size; row++) {
+                keys[row] = ((long) ages[row] << 32) | row;
+            }
+            Arrays.sort(keys);
+            this.ageOrder = new int[size];
+            this.sortedAges = new int[size];
+            for (int i = 0; i < size; i++) {
+                ageOrder[i] = (int) keys[i];
+                sortedAges[i] = (int) (keys[i] >> 32);
+            }
+        }
+
+        // 기존 행과 바뀐 행(null: 삭제)을 id 순으로 합친 새 세그먼트. 커지면 둘로 나눔, 비면 없음
+        private List<Segment> with(NavigableMap<Long, MemberView> changes, Teams teams) {
+            int capacity = ids.length + changes.size();
+            long[] nextIds = new long[capacity];
+            int[] nextAges = new int[capacity];
+            int[] nextTeamCodes = new int[capacity];
+            String[] nextUsernames = new String[capacity];
+            int size = 0;
+            int row = 0;
+            for (Map.Entry<Long, MemberView> change : changes.entrySet()) {
+                long id = change.getKey();
+                while (row < ids.length && ids[row] < id) {
+                    nextIds[size] = ids[row];
+                    nextAges[size] = ages[row];
+                    nextTeamCodes[size] = teamCodes[row];
+                    nextUsernames[size] = usernames[row];
+                    size++;
+                    row++;
+                }
+                if (row < ids.length && ids[row] == id) {
+                    row++;      // 기존 행은 버리고 다시 읽은 값으로
+                }
+                MemberView view = change.getValue();
+                if (view != null) {
+                    nextIds[size] = view.id();
+                    nextAges[size] = view.age();
+                    nextTeamCodes[size] = teams.codeOfId(view.teamId());
+                    nextUsernames[size] = view.username();
+                    size++;
+                }
+            }
+            int rest = ids.length - row;
+            System.arraycopy(ids, row, nextIds, size, rest);
+            System.arraycopy(ages, row, nextAges, size, rest);
+            System.arraycopy(teamCodes, row, nextTeamCodes, size, rest);
+            System.arraycopy(usernames, row, nextUsernames, size, rest);
+            size += rest;
+
+            List<Segment> result = new ArrayList<>(2);
+            int chunk = size > 2 * SEGMENT_SIZE ? SEGMENT_SIZE : Math.max(size, 1);
+            for (int from = 0; from < size; from += chunk) {
+                int to = Math.min(size, from + chunk);
+                result.add(new Segment(Arrays.copyOfRange(nextIds, from, to), Arrays.copyOfRange(nextAges, from, to),
+                        Arrays.copyOfRange(nextTeamCodes, from, to), Arrays.copyOfRange(nextUsernames, from, to)));
+            }
+            return result;
+        }
+
+        // 팀 -> 나이 범위 -> username 순으로 후보를 좁힘 (teamCode: null 이면 팀 조건 없음, -1 이면 없는 팀)
+        private BitSet match(MemberSearchCondition condition, Integer teamCode) {
+            int size = ids.length;
+            BitSet rows;
+            if (teamCode != null) {
+                if (teamCode < 0 || teamCode >= teamRows.length || teamRows[teamCode] == null) {
+                    return new BitSet();
+                }
+                rows = (BitSet) teamRows[teamCode].clone();
+            } else {
+                rows = new BitSet(size);
+                rows.set(0, size);
+            }
+
+            Integer ageGoe = condition.getAgeGoe();
+            Integer ageLoe = condition.getAgeLoe();
+            if (ageGoe != null || ageLoe != null) {
+                int from = ageGoe != null ? firstIndexOf(sortedAges, ageGoe) : 0;
+                int to = ageLoe != null ? firstIndexOf(sortedAges, (long) ageLoe + 1) : size;
+                BitSet inRange = new BitSet(size);
+                for (int i = from; i < to; i++) {
+                    inRange.set(ageOrder[i]);
+                }
+                rows.and(inRange);
+            }
+
+            String username = condition.getUsername();
+            String prefix = condition.getUsernamePrefix();
+            if (username != null || prefix != null) {
+                for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                    String value = usernames[row];
+                    if (value == null
+                            || (username != null && !username.equals(value))
+                            || (prefix != null && !value.startsWith(prefix))) {
+                        rows.clear(row);
+                    }
+                }
+            }
+            return rows;
+        }
+
+        private MemberTeamDto dto(int row, Teams teams) {
+            int code = teamCodes[row];
+            return new MemberTeamDto(ids[row], usernames[row], ages[row],
+                    code < 0 ? null : teams.ids[code],
+                    code < 0 ? null : teams.names[code]);
+        }
+
+        // 정렬된 배열에서 key 이상인 첫 위치
+        private static int firstIndexOf(int[] sorted, long key) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // scanViews 로 한 행씩 받아서 컬럼 배열에 쌓음
+    private static final class Builder {
+        private int size;
+        private long[] ids = new long[1024];
+        private int[] ages = new int[1024];
+        private int[] teamCodes = new int[1024];
+        private String[] usernames = new String[1024];
+        private final Map<String, String> usernamePool = new HashMap<>();   // 같은 username 은 한 인스턴스만
+        private final Map<Long, Integer> teamCodeById = new HashMap<>();
+
+        private void add(MemberView view) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                teamCodes = Arrays.copyOf(teamCodes, capacity);
+                usernames = Arrays.copyOf(usernames, capacity);
+            }
+            ids[size] = view.id();
+            ages[size] = view.age();
+            teamCodes[size] = view.teamId() != null ? teamCode(view.teamId()) : -1;
+            usernames[size] = view.username() != null ? usernamePool.computeIfAbsent(view.username(), u -> u) : null;
+            size++;
+        }
+
+        private int teamCode(Long teamId) {
+            return teamCodeById.computeIfAbsent(teamId, id -> teamCodeById.size());
+        }
+
+        private Snapshot build(Map<Long, String> teamNames, long fullChanges) {
+            // 회원이 없는 팀도 사전에 넣어 둠 (팀명 조건 -> 빈 결과)
+            teamNames.keySet().forEach(this::teamCode);
+            int teamCount = teamCodeById.size();
+            long[] teamIds = new long[teamCount];
+            String[] names = new String[teamCount];
+            teamCodeById.forEach((id, code) -> {
+                teamIds[code] = id;
+                names[code] = teamNames.get(id);
+            });
+
+            Segment[] segments = new Segment[(size + SEGMENT_SIZE - 1) / SEGMENT_SIZE];
+            for (int i = 0; i < segments.length; i++) {
+                int from = i * SEGMENT_SIZE;
+                int to = Math.min(size, from + SEGMENT_SIZE);
+                segments[i] = new Segment(Arrays.copyOfRange(ids, from, to), Arrays.copyOfRange(ages, from, to),
+                        Arrays.copyOfRange(teamCodes, from, to), Arrays.copyOfRange(usernames, from, to));
+            }
+            return new Snapshot(fullChanges, segments, new Teams(teamIds, names));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package study.querydsl.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.config.PrimaryReads;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.event.EntityChangedEvent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 검색 조건별 전체 건수 캐시.
+ * TTL이 지나거나 Member/Team 쓰기가 발생하면 다시 count 쿼리를 실행한다.
+ * 쓰기 트랜잭션 안에서 센 건수(커밋 전 데이터가 섞일 수 있음)와, 세는 동안 무효화된 건수는 캐시에 넣지 않는다.
+ * 캐시를 채우는 count 는 primary 에서 실행 (지연된 replica 의 건수가 TTL 동안 남지 않도록)
+ */
+@Component
+public class MemberCountCache {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<MemberSearchCondition, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final PrimaryReads primaryReads;
+
+    public MemberCountCache(@Value("${querydsl.member.count-cache.ttl:30s}") Duration ttl,
+                            @Value("${querydsl.member.count-cache.max-entries:1000}") int maxEntries,
+                            PrimaryReads primaryReads) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.primaryReads = primaryReads;
+    }
+
+    public long get(MemberSearchCondition condition, LongSupplier countQuery) {
+        if (inWriteTransaction()) {
+            return countQuery.getAsLong();
+        }
+        MemberSearchCondition key = condition.normalized();
+        long now = System.nanoTime();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - now > 0) {
+            return entry.count;
+        }
+
+        long loadedGeneration = generation.get();
+        long count = primaryReads.read(countQuery::getAsLong);
+        if (generation.get() != loadedGeneration) {
+            return count;
+        }
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> e.expiresAt - now <= 0);
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry(count, now + ttlNanos));
+        return count;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        invalidateAll();
+    }
+
+    // 트랜잭션이 끝나면 한 번 더 비움
+    // - 커밋: flush ~ 커밋 사이에 다른 요청이 이전 건수를 다시 채웠을 수 있음
+    // - 롤백: 롤백된 트랜잭션 안에서 계산된 건수가 남지 않도록
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onEntityChangeCompleted(EntityChangedEvent event) {
+        invalidateAll();
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long expiresAt;
+
+        private Entry(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
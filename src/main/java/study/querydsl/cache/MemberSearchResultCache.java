@@ -0,0 +1,157 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.config.PrimaryReads;
+import study.querydsl.dto.MemberPageOptions;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.event.EntityChangedEvent;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 자주 쓰이는 검색 조건의 결과 캐시 (querydsl.member.result-cache.enabled=true 일 때만 동작).
+ * - 크기는 행 수(weight) 기준으로 제한, TTL 이후 만료
+ * - Member/Team 쓰기 이벤트가 오면 전체 무효화
+ * - 같은 키를 동시에 놓친 요청들은 먼저 들어온 하나의 쿼리 결과를 함께 기다림 (stampede 방지)
+ *   waitTimeout 까지만 기다리고, 그래도 안 끝나면 직접 조회 (느린 쿼리 하나에 요청 스레드가 계속 묶이지 않도록, 결과는 캐시에 넣지 않음)
+ *
+ * 쓰기 트랜잭션 안에서 읽은 결과(커밋 전 데이터가 섞일 수 있음)는 캐시에 넣지도, 같이 기다리는 요청에 넘기지도 않는다.
+ * 캐시를 채우는 조회는 primary 에서 실행 (무효화 직후 지연된 replica 의 결과가 TTL 동안 남지 않도록)
+ * 반환되는 목록은 여러 요청이 공유하므로 수정할 수 없다.
+ */
+@Component
+public class MemberSearchResultCache {
+
+    private final boolean enabled;
+    private final Cache<Object, Object> cache;
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final long waitTimeoutNanos;
+    private final PrimaryReads primaryReads;
+
+    public MemberSearchResultCache(@Value("${querydsl.member.result-cache.enabled:false}") boolean enabled,
+                                   @Value("${querydsl.member.result-cache.max-rows:100000}") long maxRows,
+                                   @Value("${querydsl.member.result-cache.ttl:10s}") Duration ttl,
+                                   @Value("${querydsl.member.result-cache.wait-timeout:1s}") Duration waitTimeout,
+                                   MeterRegistry meterRegistry, PrimaryReads primaryReads) {
+        this.enabled = enabled;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.primaryReads = primaryReads;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxRows)
+                .weigher(MemberSearchResultCache::rows)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "memberSearchResult");
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition, Supplier<List<MemberTeamDto>> query) {
+        return get(new SearchKey(condition.normalized()), () -> Collections.unmodifiableList(query.get()));
+    }
+
+    public Page<MemberTeamDto> page(MemberSearchCondition condition, Pageable pageable, MemberPageOptions options,
+                                    Supplier<Page<MemberTeamDto>> query) {
+        return get(new PageKey(condition.normalized(), pageable, options), query);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V get(Object key, Supplier<V> query) {
+        if (!enabled || inWriteTransaction()) {
+            return query.get();
+        }
+
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (V) cached;
+        }
+
+        CompletableFuture<Object> loading = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, loading);
+        if (existing != null) {
+            try {
+                return (V) existing.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return query.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException
+                        ? (RuntimeException) e.getCause()
+                        : new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+
+        try {
+            long loadedGeneration = generation.get();
+            V result = primaryReads.read(query::get);
+            if (generation.get() == loadedGeneration) {
+                cache.put(key, result);
+            }
+            loading.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, loading);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        invalidateAll();
+    }
+
+    // 트랜잭션이 끝나면 한 번 더 비움 (flush ~ 커밋 사이에 다시 채워진 결과, 롤백된 변경)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onEntityChangeCompleted(EntityChangedEvent event) {
+        invalidateAll();
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static int rows(Object key, Object value) {
+        if (value instanceof Page) {
+            return ((Page<?>) value).getNumberOfElements() + 1;
+        }
+        return ((List<?>) value).size() + 1;
+    }
+
+    private record SearchKey(MemberSearchCondition condition) {
+    }
+
+    private record PageKey(MemberSearchCondition condition, Pageable pageable, MemberPageOptions options) {
+    }
+}
@@ -0,0 +1,83 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.event.TeamChangedEvent;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 팀명 -> 팀 id 목록 캐시.
+ * 검색 조건의 팀명을 id 로 바꿔 두면 member.team_id 로 바로 필터링할 수 있어서 team 조인이 필요 없다.
+ * 팀은 거의 바뀌지 않으므로 팀 쓰기 이벤트가 올 때만 전체 무효화. (히트/미스는 cache.gets 메트릭)
+ * 쓰기 트랜잭션 안에서 조회한 결과는 커밋 전 상태라 저장하지 않고, 놓친 무효화가 있어도 ttl 이 지나면 다시 조회한다.
+ */
+@Component
+public class TeamNameResolver {
+
+    private final EntityManager em;
+    private final Cache<String, List<Long>> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public TeamNameResolver(EntityManager em, MeterRegistry meterRegistry,
+                            @Value("${querydsl.team.name-cache.max-size:10000}") long maxSize,
+                            @Value("${querydsl.team.name-cache.ttl:10m}") Duration ttl) {
+        this.em = em;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "teamNameToId");
+    }
+
+    public List<Long> resolve(String teamName) {
+        List<Long> teamIds = cache.getIfPresent(teamName);
+        if (teamIds != null) {
+            return teamIds;
+        }
+
+        // 조회 중 auto flush 로 팀 변경 이벤트가 발생할 수 있으므로 cache.get(key, loader) 대신
+        // 조회 전후 세대가 같을 때만 저장
+        long loadedGeneration = generation.get();
+        teamIds = List.copyOf(em.createQuery("select t.id from Team t where t.name = :name", Long.class)
+                .setParameter("name", teamName)
+                .getResultList());
+        if (generation.get() == loadedGeneration && !inWriteTransaction()) {
+            cache.put(teamName, teamIds);
+        }
+        return teamIds;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @EventListener
+    public void onTeamChanged(TeamChangedEvent event) {
+        invalidateAll();
+    }
+
+    // 커밋 직후에도 한 번 더 비움 (flush ~ 커밋 사이에 다른 요청이 커밋 전 상태를 다시 채웠을 수 있음), 롤백도 동일
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onTeamChangeCompleted(TeamChangedEvent event) {
+        invalidateAll();
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
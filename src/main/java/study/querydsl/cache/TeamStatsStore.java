@@ -0,0 +1,454 @@
+package study.querydsl.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamAgeCount;
+import study.querydsl.dto.TeamMemberStats;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeListener;
+import study.querydsl.event.MemberBulkChangedEvent;
+import study.querydsl.repository.TeamRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 팀별 회원 통계(회원 수 / 나이 sum, min, max, avg) 메모리 저장소. 조회는 팀마다 미리 만들어 둔 스냅샷이라 O(1).
+ * - 회원 insert/update/delete: 하이버네이트 post 이벤트의 이전/이후 상태로 증감분을 모아 두었다가 커밋 후에 반영 (롤백이면 버림)
+ * - 벌크 연산: 어떤 회원이 바뀌었는지 모르므로 dirty 표시 -> 조회는 마지막 스냅샷으로 바로 응답하고 백그라운드에서 다시 집계
+ *   (조회 스레드가 group by 전체 집계를 기다리지 않음, 그동안은 벌크 연산 이전 값이 보임)
+ * - 주기적으로 DB 에서 다시 집계해서 어긋난 값을 바로잡는다
+ * - 트랜잭션(첫 변경 ~ 커밋)이 재계산 구간과 겹치면 집계에 포함됐는지 알 수 없으므로 반영하고 stale 표시 -> 다음 주기에 다시 집계
+ * 처음 조회되기 전에는 증감분을 반영하지 않음 (스냅샷이 없으므로 첫 조회 때만 DB 에서 집계하고 기다림)
+ */
+@Slf4j
+@Component
+public class TeamStatsStore {
+
+    private static final Comparator<TeamMemberStats> BY_TEAM_NAME = Comparator
+            .comparing(TeamMemberStats::getTeamName, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(TeamMemberStats::getTeamId);
+
+    private final EntityManagerFactory emf;
+    private final TeamRepository teamRepository;
+    private final TransactionTemplate reconcileTransaction;
+    private final long reconcileIntervalNanos;
+
+    private final Object reconcileMonitor = new Object();
+    private final Map<Long, Bucket> buckets = new HashMap<>();      // guarded by this
+    private volatile Map<Long, TeamMemberStats> snapshots = new ConcurrentHashMap<>();
+
+    private volatile boolean active;        // 한 번이라도 조회됨 -> 증감분 반영 시작
+    private volatile boolean dirty = true;  // 조회 전에 반드시 재계산
+    private volatile boolean stale;         // 어긋났을 수 있음 -> 다음 주기 작업에서 재계산
+    // 재계산 시작/끝 시점. 트랜잭션의 첫 변경 시점과 비교해서 겹치는지 판단
+    private final AtomicLong epoch = new AtomicLong();
+    private volatile long reconcileStartedEpoch;
+    private volatile long reconcileEndedEpoch;
+    private volatile long lastReconciledAt;
+    private volatile boolean reconciled;    // 스냅샷이 한 번이라도 만들어짐 -> 이후 조회는 기다리지 않음
+
+    // 조회 중에 dirty 를 발견하면 여기서 다시 집계 (이미 예약돼 있으면 또 넣지 않음)
+    private final ExecutorService reconcileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "team-stats-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reconcileQueued = new AtomicBoolean();
+
+    public TeamStatsStore(EntityManagerFactory emf, TeamRepository teamRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${querydsl.team-stats.reconcile-interval:5m}") Duration reconcileInterval) {
+        this.emf = emf;
+        this.teamRepository = teamRepository;
+        // 커밋된 값만 읽도록 별도 트랜잭션, replica 지연으로 최신 증감분을 덮어쓰지 않도록 primary 에서 읽음 (read-only X)
+        this.reconcileTransaction = new TransactionTemplate(transactionManager);
+        this.reconcileTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconcileIntervalNanos = reconcileInterval.toNanos();
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        ChangeListener listener = new ChangeListener();
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconcileExecutor.shutdownNow();
+    }
+
+    public List<TeamMemberStats> findAll() {
+        reconcileIfDirty();
+        return snapshots.values().stream()
+                .sorted(BY_TEAM_NAME)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<TeamMemberStats> find(Long teamId) {
+        reconcileIfDirty();
+        return Optional.ofNullable(snapshots.get(teamId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBulkChanged(MemberBulkChangedEvent event) {
+        dirty = true;
+    }
+
+    // check-interval(ms) 마다 확인해서 dirty/stale 이거나 reconcile-interval 이 지났으면 다시 집계
+    @Scheduled(fixedDelayString = "${querydsl.team-stats.check-interval:1000}")
+    public void scheduledReconcile() {
+        if (!active) {
+            return;
+        }
+        if (dirty || stale || System.nanoTime() - lastReconciledAt > reconcileIntervalNanos) {
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                log.warn("team stats reconciliation failed", e);
+            }
+        }
+    }
+
+    // DB 에서 팀/나이별로 다시 집계해서 통째로 교체
+    public void reconcile() {
+        synchronized (reconcileMonitor) {
+            active = true;
+            dirty = false;
+            stale = false;
+            reconcileStartedEpoch = epoch.incrementAndGet();
+            try {
+                List<TeamAgeCount> rows = reconcileTransaction.execute(status -> teamRepository.findTeamAgeCounts());
+
+                Map<Long, Bucket> rebuilt = new HashMap<>();
+                for (TeamAgeCount row : rows) {
+                    Bucket bucket = rebuilt.computeIfAbsent(row.getTeamId(), id -> new Bucket());
+                    bucket.name = row.getTeamName();
+                    if (row.getAge() != null) {
+                        bucket.add(row.getAge(), row.getCount());
+                    }
+                }
+                Map<Long, TeamMemberStats> rebuiltSnapshots = new ConcurrentHashMap<>();
+                rebuilt.forEach((teamId, bucket) -> rebuiltSnapshots.put(teamId, bucket.snapshot(teamId)));
+
+                synchronized (this) {
+                    buckets.clear();
+                    buckets.putAll(rebuilt);
+                    snapshots = rebuiltSnapshots;
+                }
+                lastReconciledAt = System.nanoTime();
+            } catch (RuntimeException e) {
+                dirty = true;
+                throw e;
+            } finally {
+                reconcileEndedEpoch = epoch.incrementAndGet();
+            }
+            reconciled = true;
+        }
+    }
+
+    private void reconcileIfDirty() {
+        if (!dirty) {
+            return;
+        }
+        if (reconciled) {
+            reconcileInBackground();
+            return;
+        }
+        // 보여줄 스냅샷이 없을 때만 조회 스레드에서 집계
+        synchronized (reconcileMonitor) {
+            if (!reconciled) {
+                reconcile();
+            }
+        }
+    }
+
+    private void reconcileInBackground() {
+        if (!reconcileQueued.compareAndSet(false, true)) {
+            return;
+        }
+        reconcileExecutor.execute(() -> {
+            reconcileQueued.set(false);
+            if (!dirty) {
+                return;
+            }
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                log.warn("team stats reconciliation failed", e);
+            }
+        });
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    boolean isStale() {
+        return stale;
+    }
+
+    // 트랜잭션마다 증감분을 하나로 모아 두고 커밋되면 한 번에 반영
+    // 첫 조회 전(active X)에도 모아 둠: 모으는 중에 첫 재계산이 끝나면 그 집계에 빠졌을 수 있음
+    private void record(Consumer<PendingChanges> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingChanges changes = new PendingChanges(epoch.get());
+            change.accept(changes);
+            apply(changes);
+            return;
+        }
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new PendingChanges(epoch.get());
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new ApplyOnCommit(changes));
+        }
+        change.accept(changes);
+    }
+
+    private synchronized void apply(PendingChanges changes) {
+        if (!active) {
+            return;     // 첫 조회 때 DB 에서 집계
+        }
+        // 재계산이 진행 중이거나, 첫 변경 이후에 끝난 재계산이 있으면 DB 집계에 포함됐는지 알 수 없음 -> 다음 주기에 다시 집계
+        if (reconcileStartedEpoch > reconcileEndedEpoch || reconcileEndedEpoch > changes.epoch) {
+            stale = true;
+        }
+        Set<Long> touched = new HashSet<>();
+        changes.teamNames.forEach((teamId, name) -> {
+            buckets.computeIfAbsent(teamId, id -> new Bucket()).name = name;
+            touched.add(teamId);
+        });
+        changes.ages.forEach((teamId, deltas) -> {
+            Bucket bucket = buckets.get(teamId);
+            if (bucket == null) {
+                stale = true;
+                bucket = new Bucket();
+                buckets.put(teamId, bucket);
+            }
+            for (Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+                if (!bucket.add(delta.getKey(), delta.getValue())) {
+                    stale = true;
+                }
+            }
+            touched.add(teamId);
+        });
+        for (Long teamId : touched) {
+            snapshots.put(teamId, buckets.get(teamId).snapshot(teamId));
+        }
+        for (Long teamId : changes.removedTeams) {
+            buckets.remove(teamId);
+            snapshots.remove(teamId);
+        }
+        if (changes.unknown) {
+            dirty = true;
+        }
+    }
+
+    private static Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+
+    private static Object property(EntityPersister persister, Object[] state, String name) {
+        return state[persister.getEntityMetamodel().getPropertyIndex(name)];
+    }
+
+    // 대량 적재 중(EntityChangeListener.suppress)에는 행마다 증감분을 쌓지 않음 -> 끝나고 오는 벌크 이벤트로 다시 집계
+    private class ChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (EntityChangeListener.isSuppressed()) {
+                return;
+            }
+            Object entity = event.getEntity();
+            if (entity instanceof Member) {
+                Long teamId = teamId(property(event.getPersister(), event.getState(), "team"));
+                int age = (Integer) property(event.getPersister(), event.getState(), "age");
+                record(changes -> changes.member(teamId, age, 1));
+            } else if (entity instanceof Team) {
+                String name = (String) property(event.getPersister(), event.getState(), "name");
+                record(changes -> changes.teamNames.put((Long) event.getId(), name));
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (EntityChangeListener.isSuppressed()) {
+                return;
+            }
+            Object entity = event.getEntity();
+            Object[] oldState = event.getOldState();
+            if (!(entity instanceof Member) && !(entity instanceof Team)) {
+                return;
+            }
+            if (oldState == null) {
+                // 스냅샷 없이 update 된 경우 (이전 값을 모름)
+                record(changes -> changes.unknown = true);
+                return;
+            }
+            EntityPersister persister = event.getPersister();
+            if (entity instanceof Member) {
+                Long oldTeamId = teamId(property(persister, oldState, "team"));
+                int oldAge = (Integer) property(persister, oldState, "age");
+                Long newTeamId = teamId(property(persister, event.getState(), "team"));
+                int newAge = (Integer) property(persister, event.getState(), "age");
+                if (oldAge != newAge || !Objects.equals(oldTeamId, newTeamId)) {
+                    record(changes -> {
+                        changes.member(oldTeamId, oldAge, -1);
+                        changes.member(newTeamId, newAge, 1);
+                    });
+                }
+            } else {
+                String name = (String) property(persister, event.getState(), "name");
+                record(changes -> changes.teamNames.put((Long) event.getId(), name));
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (EntityChangeListener.isSuppressed()) {
+                return;
+            }
+            Object entity = event.getEntity();
+            if (entity instanceof Member) {
+                Long teamId = teamId(property(event.getPersister(), event.getDeletedState(), "team"));
+                int age = (Integer) property(event.getPersister(), event.getDeletedState(), "age");
+                record(changes -> changes.member(teamId, age, -1));
+            } else if (entity instanceof Team) {
+                record(changes -> changes.removedTeams.add((Long) event.getId()));
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return false;
+        }
+    }
+
+    // 한 트랜잭션에서 생긴 변경 (팀 -> 나이 -> 회원 수 증감)
+    private static class PendingChanges {
+        private final long epoch;       // 첫 변경 시점
+        private final Map<Long, Map<Integer, Long>> ages = new HashMap<>();
+        private final Map<Long, String> teamNames = new HashMap<>();
+        private final Set<Long> removedTeams = new HashSet<>();
+        private boolean unknown;
+
+        private PendingChanges(long epoch) {
+            this.epoch = epoch;
+        }
+
+        private void member(Long teamId, int age, long delta) {
+            if (teamId != null) {
+                ages.computeIfAbsent(teamId, id -> new HashMap<>()).merge(age, delta, Long::sum);
+            }
+        }
+    }
+
+    // 커밋되면 반영, 롤백이면 버림. REQUIRES_NEW 로 트랜잭션이 중단되면 함께 unbind/bind
+    private class ApplyOnCommit implements TransactionSynchronization {
+        private final PendingChanges changes;
+
+        private ApplyOnCommit(PendingChanges changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(TeamStatsStore.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TeamStatsStore.this, changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TeamStatsStore.this);
+            if (status == STATUS_COMMITTED) {
+                apply(changes);
+            }
+        }
+    }
+
+    // 팀 하나의 나이별 회원 수. min/max 는 TreeMap 양 끝
+    private static class Bucket {
+        private String name;
+        private long count;
+        private long ageSum;
+        private final TreeMap<Integer, Long> ages = new TreeMap<>();
+
+        // 음수가 되면(= 어긋남) false
+        private boolean add(int age, long delta) {
+            long members = ages.getOrDefault(age, 0L) + delta;
+            if (members > 0) {
+                ages.put(age, members);
+            } else {
+                ages.remove(age);
+            }
+            count += delta;
+            ageSum += (long) age * delta;
+            return members >= 0 && count >= 0;
+        }
+
+        private TeamMemberStats snapshot(Long teamId) {
+            return new TeamMemberStats(teamId, name, count,
+                    count > 0 ? ageSum : null,
+                    ages.isEmpty() ? null : ages.firstKey(),
+                    ages.isEmpty() ? null : ages.lastKey(),
+                    count > 0 ? (double) ageSum / count : null);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package study.querydsl.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.loader.BatchFetchStyle;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.metrics.StatementCountInspector;
+import study.querydsl.repository.MemberFullTextIndex;
+
+@Configuration
+public class HibernateConfig {
+
+    // 2차 캐시: 로컬 Caffeine(JCache) 사용, 캐시 대상은 @Cache 가 붙은 엔티티(Team)만
+    // 통계를 켜 두면 hibernate.second.level.cache.* 메트릭으로 히트/미스를 볼 수 있음
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put("hibernate.javax.cache.provider", CaffeineCachingProvider.class.getName());
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "create");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    // 지연 로딩(Team.members, Member.team 프록시)을 최대 batch-fetch-size 개씩 IN 절로 묶어서 조회
+    // PADDED: IN 절 파라미터 수를 정해진 몇 가지 크기로 맞춰서 같은 SQL 을 재사용 (statement / 실행 계획 캐시 적중)
+    @Bean
+    HibernatePropertiesCustomizer batchFetchCustomizer(@Value("${querydsl.jpa.batch-fetch-size:100}") int batchFetchSize) {
+        return properties -> {
+            properties.put(AvailableSettings.DEFAULT_BATCH_FETCH_SIZE, batchFetchSize);
+            properties.put(AvailableSettings.BATCH_FETCH_STYLE, BatchFetchStyle.PADDED.name());
+        };
+    }
+
+    // 요청 / N+1 감지 범위의 statement 수는 p6spy 가 아니라 하이버네이트에서 셈 (p6spy 를 꺼도 동작)
+    @Bean
+    HibernatePropertiesCustomizer statementCountCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCountInspector());
+    }
+
+    // 회원명 전문 검색 조건을 JPQL 에서 쓸 수 있도록 등록 (MemberFullTextIndex 참고)
+    @Bean
+    HibernatePropertiesCustomizer fullTextFunctionCustomizer() {
+        MetadataBuilderContributor contributor = builder -> builder.applySqlFunction(MemberFullTextIndex.MATCH_FUNCTION,
+                new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, MemberFullTextIndex.MATCH_SQL));
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.METADATA_BUILDER_CONTRIBUTOR, contributor);
+    }
+}
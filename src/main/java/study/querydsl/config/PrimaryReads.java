@@ -0,0 +1,75 @@
+package study.querydsl.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * replica 에서 읽으면 안 되는 조회를 primary 에서 실행한다. (querydsl.datasource.replica.url 이 없으면 그대로 실행)
+ * - 캐시 재적재: 커밋 직후 무효화된 캐시를 지연된 replica 에서 다시 채우면 TTL 동안 이전 값이 남음
+ * - 전문 검색: 인덱스(FT_CREATE_INDEX)는 primary 에만 만들어짐
+ *
+ * 별도 읽기 전용 트랜잭션(REQUIRES_NEW)으로 실행하고, 트랜잭션 이름(TRANSACTION_NAME)을 보고 primary 로 라우팅한다.
+ * 쓰기 트랜잭션(이미 primary, 커밋 전 데이터가 보여야 함)이나 이미 primary 읽기 트랜잭션 안이면 그 트랜잭션에서 그대로 실행.
+ * 새 트랜잭션에서 읽은 엔티티는 끝나면 준영속이 된다 (페치 조인한 연관까지만 사용 가능)
+ */
+@Component
+public class PrimaryReads {
+
+    public static final String TRANSACTION_NAME = "primaryRead";
+
+    @FunctionalInterface
+    public interface Query<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    private final PlatformTransactionManager transactionManager;
+    private final DefaultTransactionDefinition definition;
+    private final boolean routing;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager,
+                        @Value("${querydsl.datasource.replica.url:}") String replicaUrl) {
+        this.transactionManager = transactionManager;
+        this.definition = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.definition.setReadOnly(true);
+        this.definition.setName(TRANSACTION_NAME);
+        this.routing = !replicaUrl.isEmpty();
+    }
+
+    public <T, E extends Exception> T read(Query<T, E> query) throws E {
+        if (!routing || isActive() || inWriteTransaction()) {
+            return query.get();
+        }
+        TransactionStatus status = transactionManager.getTransaction(definition);
+        boolean completed = false;
+        try {
+            T result = query.get();
+            completed = true;
+            return result;
+        } finally {
+            if (completed) {
+                transactionManager.commit(status);
+            } else {
+                transactionManager.rollback(status);
+            }
+        }
+    }
+
+    // 현재 트랜잭션이 primary 읽기 트랜잭션인지 (ReadOnlyRoutingDataSource, 다른 스레드로 넘기는 조회에서 사용)
+    public static boolean isActive() {
+        return TRANSACTION_NAME.equals(TransactionSynchronizationManager.getCurrentTransactionName());
+    }
+
+    public static boolean isPrimaryRead(TransactionDefinition definition) {
+        return TRANSACTION_NAME.equals(definition.getName());
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
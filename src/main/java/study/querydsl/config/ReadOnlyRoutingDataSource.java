@@ -0,0 +1,65 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.Map;
+
+/**
+ * 읽기 전용 트랜잭션 -> replica, 나머지 -> primary.
+ * replica 지연을 허용하지 않는 읽기(PrimaryReads)는 읽기 전용이어도 primary.
+ *
+ * 트랜잭션 매니저는 read-only 플래그를 설정하기 전에 커넥션을 가져오므로
+ * LazyConnectionDataSourceProxy 로 감싸서 실제 커넥션이 필요한 시점에 라우팅한다.
+ * (p6spy 가 커넥션을 감싸면서 바로 메타데이터를 조회하므로 ReadOnlyRoutingTransactionManager 가 플래그를 먼저 표시)
+ * 두 커넥션 풀은 빈으로 등록하지 않고 여기서 소유한다 (p6spy 가 DataSource 빈마다 감싸서 statement 가 두 번 세어지는 것 방지).
+ */
+public class ReadOnlyRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    public enum Route {PRIMARY, REPLICA}
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+
+    public ReadOnlyRoutingDataSource(HikariDataSource primary, HikariDataSource replica, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        setTargetDataSource(new Router(primary, replica, meterRegistry));
+        afterPropertiesSet();
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+
+    private static class Router extends AbstractRoutingDataSource {
+
+        private final Counter primaryRoutes;
+        private final Counter replicaRoutes;
+
+        private Router(HikariDataSource primary, HikariDataSource replica, MeterRegistry meterRegistry) {
+            this.primaryRoutes = meterRegistry.counter("querydsl.datasource.route", "route", "primary");
+            this.replicaRoutes = meterRegistry.counter("querydsl.datasource.route", "route", "replica");
+            setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+            setDefaultTargetDataSource(primary);
+            afterPropertiesSet();
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !PrimaryReads.isActive()) {
+                replicaRoutes.increment();
+                return Route.REPLICA;
+            }
+            primaryRoutes.increment();
+            return Route.PRIMARY;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package study.querydsl.config;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 커넥션을 얻기 전에 read-only 여부를 먼저 표시해서 ReadOnlyRoutingDataSource 가 라우팅할 수 있게 한다.
+ *
+ * 원래 read-only 플래그는 doBegin 이 끝난 뒤에 설정되는데, p6spy 는 커넥션을 감싸면서 바로 메타데이터를 조회하므로
+ * LazyConnectionDataSourceProxy 의 실제 커넥션이 플래그가 설정되기 전에 정해져 버린다 (-> 항상 primary).
+ */
+public class ReadOnlyRoutingTransactionManager extends JpaTransactionManager {
+
+    public ReadOnlyRoutingTransactionManager(EntityManagerFactory emf) {
+        super(emf);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        boolean previous = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        // PrimaryReads 트랜잭션은 읽기 전용이어도 primary (read-only 플래그는 doBegin 이후에 다시 설정됨)
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(
+                definition.isReadOnly() && !PrimaryReads.isPrimaryRead(definition));
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(previous);
+            throw e;
+        }
+    }
+}
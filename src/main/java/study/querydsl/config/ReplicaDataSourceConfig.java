@@ -0,0 +1,59 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * querydsl.datasource.replica.url 이 있으면 읽기 전용 트랜잭션을 replica 로 보낸다.
+ * 로컬에서는 H2 두 개로 확인: ex) spring.datasource.url=jdbc:h2:tcp://localhost/~/querydsl
+ *                                querydsl.datasource.replica.url=jdbc:h2:tcp://localhost/~/querydsl-replica
+ * 캐시 재적재와 전문 검색은 replica 지연과 상관없도록 primary 에서 읽음 (PrimaryReads)
+ * 커넥션 풀 메트릭: hikaricp.connections.* (pool=primary|replica), 라우팅 횟수: querydsl.datasource.route
+ */
+@Configuration
+@ConditionalOnProperty("querydsl.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public ReadOnlyRoutingDataSource dataSource(DataSourceProperties properties,
+                                                @Value("${querydsl.datasource.replica.url}") String replicaUrl,
+                                                @Value("${querydsl.datasource.replica.username:${spring.datasource.username:sa}}") String replicaUsername,
+                                                @Value("${querydsl.datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+                                                MeterRegistry meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        return new ReadOnlyRoutingDataSource(primary, replica, meterRegistry);
+    }
+
+    // 부트 기본 JpaTransactionManager 대신 (커넥션을 얻기 전에 read-only 여부를 표시)
+    @Bean
+    public ReadOnlyRoutingTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                                ObjectProvider<TransactionManagerCustomizers> customizers) {
+        ReadOnlyRoutingTransactionManager transactionManager = new ReadOnlyRoutingTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,10 @@
+package study.querydsl.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// 주기 작업 (ex. TeamStatsStore 재집계)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,23 @@
+package study.querydsl.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.querydsl.metrics.NPlusOneInterceptor;
+import study.querydsl.metrics.StatementCountInterceptor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final StatementCountInterceptor statementCountInterceptor;
+    private final NPlusOneInterceptor nPlusOneInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 순서 유지: statement 카운터가 먼저 시작되고 나중에 끝나야 함
+        registry.addInterceptor(statementCountInterceptor);
+        registry.addInterceptor(nPlusOneInterceptor);
+    }
+}
@@ -0,0 +1,55 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.MemberPageOptions;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.service.SearchExecutor;
+import study.querydsl.service.SearchRejectedException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 회원 검색 v1~v3 (ASYNC): SearchExecutor 의 전용 executor 에서 조회하고 CompletableFuture 로 응답.
+ * 엔드포인트별 동시 실행 한도를 넘으면 503
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "querydsl.search.execution-mode", havingValue = "ASYNC")
+public class AsyncMemberSearchController {
+    private final MemberJpaRepository memberJpaRepository;
+    private final MemberRepository memberRepository;
+    private final SearchExecutor searchExecutor;
+
+    @GetMapping("/v1/members")
+    public CompletableFuture<List<MemberTeamDto>> searchMemberV1(MemberSearchCondition condition){
+        return searchExecutor.submit("v1", () -> memberJpaRepository.search(condition));
+    }
+
+    @GetMapping("/v2/members")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV2(MemberSearchCondition condition, Pageable pageable){
+        return searchExecutor.submit("v2", () -> memberRepository.searchPageSimple(condition, pageable));
+    }
+
+    @GetMapping("/v3/members")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV3(MemberSearchCondition condition, Pageable pageable, MemberPageOptions options){
+        return searchExecutor.submit("v3", () -> memberRepository.searchPageComplex(condition, pageable, options));
+    }
+
+    @ExceptionHandler(SearchRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleSearchRejected(SearchRejectedException e){
+        return e.getMessage();
+    }
+}
@@ -1,35 +1,62 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.InvalidCursorException;
+import study.querydsl.dto.MemberCursor;
 import study.querydsl.dto.MemberSearchCondition;
-import study.querydsl.dto.MemberTeamDto;
-import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.dto.MemberSlice;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.service.MemberExportService;
 
-import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
-    private final MemberJpaRepository memberJpaRepository;
+    private static final int MAX_SLICE_SIZE = 100;
+
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
 
-    @GetMapping("/v1/members")
-    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition){
-        return memberJpaRepository.search(condition);
+    // 커서 기반 페이징: 응답의 nextCursor를 다음 요청의 cursor로 그대로 넘기면 됨
+    // 정렬 키는 커서에 들어 있으므로 cursor 와 함께 sort 를 보내면 같은 값이어야 함 (다르면 400)
+    @GetMapping("/v4/members")
+    public MemberSlice searchMemberV4(MemberSearchCondition condition,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) MemberCursor.SortKey sort,
+                                      @RequestParam(defaultValue = "20") int size){
+        MemberCursor memberCursor;
+        if (cursor != null) {
+            memberCursor = MemberCursor.decode(cursor);
+            if (sort != null && sort != memberCursor.getSortKey()) {
+                throw new InvalidCursorException("cursor was issued for sort=" + memberCursor.getSortKey() + ", not " + sort);
+            }
+        } else {
+            memberCursor = MemberCursor.first(sort != null ? sort : MemberCursor.SortKey.ID);
+        }
+        return memberRepository.searchSlice(condition, memberCursor, Math.max(1, Math.min(size, MAX_SLICE_SIZE)));
     }
 
-    @GetMapping("/v2/members")
-    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable){
-        return memberRepository.searchPageSimple(condition, pageable);
+    // 전체 검색 결과를 NDJSON / CSV 로 한 줄씩 바로 내려줌
+    @GetMapping("/members/export")
+    public void exportMembers(MemberSearchCondition condition,
+                              @RequestParam(defaultValue = "NDJSON") MemberExportService.Format format,
+                              HttpServletResponse response) throws IOException {
+        response.setContentType(format == MemberExportService.Format.CSV ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        memberExportService.export(condition, format, response.getWriter());
     }
 
-    @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable){
-        return memberRepository.searchPageComplex(condition, pageable);
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleInvalidCursor(InvalidCursorException e){
+        return e.getMessage();
     }
 }
@@ -0,0 +1,42 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.MemberPageOptions;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+
+/**
+ * 회원 검색 v1~v3 (BLOCKING, 기본값): 요청 스레드에서 바로 조회하고 결과를 그대로 응답.
+ * querydsl.search.execution-mode=ASYNC 이면 AsyncMemberSearchController 가 대신 등록된다.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "querydsl.search.execution-mode", havingValue = "BLOCKING", matchIfMissing = true)
+public class MemberSearchController {
+    private final MemberJpaRepository memberJpaRepository;
+    private final MemberRepository memberRepository;
+
+    @GetMapping("/v1/members")
+    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition){
+        return memberJpaRepository.search(condition);
+    }
+
+    @GetMapping("/v2/members")
+    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable){
+        return memberRepository.searchPageSimple(condition, pageable);
+    }
+
+    @GetMapping("/v3/members")
+    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable, MemberPageOptions options){
+        return memberRepository.searchPageComplex(condition, pageable, options);
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.cache.TeamStatsStore;
+import study.querydsl.dto.TeamMemberStats;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsStore teamStatsStore;
+
+    // 대시보드 폴링용: 매번 group by 하지 않고 미리 집계해 둔 값을 돌려줌
+    @GetMapping("/teams/stats")
+    public List<TeamMemberStats> teamStats(){
+        return teamStatsStore.findAll();
+    }
+
+    @GetMapping("/teams/{teamId}/stats")
+    public ResponseEntity<TeamMemberStats> teamStats(@PathVariable Long teamId){
+        return ResponseEntity.of(teamStatsStore.find(teamId));
+    }
+}
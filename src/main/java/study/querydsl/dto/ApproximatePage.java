@@ -0,0 +1,20 @@
+package study.querydsl.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * 건수를 상한까지만 센 페이지. totalElements는 하한값이다. (화면에서는 "10,000+" 처럼 표시)
+ */
+public class ApproximatePage<T> extends PageImpl<T> {
+
+    public ApproximatePage(List<T> content, Pageable pageable, long totalLowerBound) {
+        super(content, pageable, totalLowerBound);
+    }
+
+    public boolean isTotalExact() {
+        return false;
+    }
+}
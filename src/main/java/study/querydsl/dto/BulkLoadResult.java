@@ -0,0 +1,25 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Getter
+@ToString
+public class BulkLoadResult {
+    private final long rows;
+    private final int teamsCreated;
+    private final Duration elapsed;
+
+    public BulkLoadResult(long rows, int teamsCreated, Duration elapsed) {
+        this.rows = rows;
+        this.teamsCreated = teamsCreated;
+        this.elapsed = elapsed;
+    }
+
+    public double getRowsPerSecond() {
+        long millis = Math.max(elapsed.toMillis(), 1);
+        return rows * 1000.0 / millis;
+    }
+}
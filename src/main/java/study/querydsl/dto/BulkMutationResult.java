@@ -0,0 +1,20 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+public class BulkMutationResult {
+    private final List<Long> chunkCounts;
+
+    public BulkMutationResult(List<Long> chunkCounts) {
+        this.chunkCounts = chunkCounts;
+    }
+
+    public long getTotal() {
+        return chunkCounts.stream().mapToLong(Long::longValue).sum();
+    }
+}
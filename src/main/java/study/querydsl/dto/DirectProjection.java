@@ -0,0 +1,85 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 행(Object[]) -> DTO 를 리플렉션 없이 mapper 로 바로 생성하는 프로젝션.
+ * Projections.bean/fields/constructor 는 행마다 setter/필드/생성자를 리플렉션으로 호출한다.
+ *
+ * mapper 의 인자 타입은 같은 순서의 식 타입(Expression<A> ...)으로 정해지므로 컬럼 순서/타입이 생성자와 어긋나면 컴파일 에러.
+ * 행의 값은 식의 타입으로 바로 확인 (어긋난 값이 DTO 안으로 들어가지 않음)
+ */
+public class DirectProjection<T> extends FactoryExpressionBase<T> {
+
+    @FunctionalInterface
+    public interface Mapper2<A, B, T> {
+        T map(A a, B b);
+    }
+
+    @FunctionalInterface
+    public interface Mapper4<A, B, C, D, T> {
+        T map(A a, B b, C c, D d);
+    }
+
+    @FunctionalInterface
+    public interface Mapper5<A, B, C, D, E, T> {
+        T map(A a, B b, C c, D d, E e);
+    }
+
+    private final List<Expression<?>> args;
+    private final Function<Object[], T> mapper;
+
+    private DirectProjection(Class<? extends T> type, Function<Object[], T> mapper, Expression<?>... args) {
+        super(type);
+        this.args = List.of(args);
+        this.mapper = mapper;
+    }
+
+    public static <A, B, T> DirectProjection<T> of(Class<? extends T> type,
+                                                   Expression<A> a, Expression<B> b,
+                                                   Mapper2<A, B, T> mapper) {
+        return new DirectProjection<>(type,
+                row -> mapper.map(value(a, row[0]), value(b, row[1])),
+                a, b);
+    }
+
+    public static <A, B, C, D, T> DirectProjection<T> of(Class<? extends T> type,
+                                                         Expression<A> a, Expression<B> b, Expression<C> c, Expression<D> d,
+                                                         Mapper4<A, B, C, D, T> mapper) {
+        return new DirectProjection<>(type,
+                row -> mapper.map(value(a, row[0]), value(b, row[1]), value(c, row[2]), value(d, row[3])),
+                a, b, c, d);
+    }
+
+    public static <A, B, C, D, E, T> DirectProjection<T> of(Class<? extends T> type,
+                                                            Expression<A> a, Expression<B> b, Expression<C> c, Expression<D> d, Expression<E> e,
+                                                            Mapper5<A, B, C, D, E, T> mapper) {
+        return new DirectProjection<>(type,
+                row -> mapper.map(value(a, row[0]), value(b, row[1]), value(c, row[2]), value(d, row[3]), value(e, row[4])),
+                a, b, c, d, e);
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    public T newInstance(Object... row) {
+        return mapper.apply(row);
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    private static <V> V value(Expression<V> expression, Object value) {
+        return expression.getType().cast(value);
+    }
+}
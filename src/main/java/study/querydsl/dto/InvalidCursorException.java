@@ -0,0 +1,15 @@
+package study.querydsl.dto;
+
+/**
+ * 클라이언트가 보낸 커서를 해석할 수 없거나 요청과 맞지 않음 (-> 400)
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,73 @@
+package study.querydsl.dto;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋(seek) 페이징용 커서.
+ * 마지막으로 읽은 행의 정렬 키를 들고 있다가 다음 페이지를 "그 키 이후"로 조회한다.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class MemberCursor {
+
+    public enum SortKey {
+        ID,     // member.id
+        AGE     // (member.age, member.id)
+    }
+
+    private final SortKey sortKey;
+    private final Integer age;
+    private final Long memberId;
+
+    private MemberCursor(SortKey sortKey, Integer age, Long memberId) {
+        this.sortKey = sortKey;
+        this.age = age;
+        this.memberId = memberId;
+    }
+
+    // 첫 페이지 (아직 읽은 행이 없음)
+    public static MemberCursor first(SortKey sortKey) {
+        return new MemberCursor(sortKey, null, null);
+    }
+
+    public static MemberCursor after(MemberTeamDto last, SortKey sortKey) {
+        Integer age = sortKey == SortKey.AGE ? last.getAge() : null;
+        return new MemberCursor(sortKey, age, last.getMemberId());
+    }
+
+    public boolean isFirst() {
+        return memberId == null;
+    }
+
+    // 클라이언트에는 키 구조를 노출하지 않고 불투명한 문자열로 전달
+    public String encode() {
+        String raw = sortKey == SortKey.AGE
+                ? sortKey.name() + ":" + age + ":" + memberId
+                : sortKey.name() + ":" + memberId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            if (sortKey == SortKey.AGE && parts.length == 3) {
+                return new MemberCursor(sortKey, Integer.valueOf(parts[1]), Long.valueOf(parts[2]));
+            }
+            if (sortKey == SortKey.ID && parts.length == 2) {
+                return new MemberCursor(sortKey, null, Long.valueOf(parts[1]));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("invalid cursor: " + cursor, e);
+        }
+        throw new InvalidCursorException("invalid cursor: " + cursor);
+    }
+}
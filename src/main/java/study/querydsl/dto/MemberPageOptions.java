@@ -0,0 +1,52 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 페이징 조회 방식 선택 (쿼리 파라미터로 바인딩됨)
+ */
+@Data
+@NoArgsConstructor
+public class MemberPageOptions {
+
+    // ESTIMATED 에서 실제로 읽는 행 수 상한 (클라이언트가 큰 값을 보내도 전체 스캔이 되지 않도록)
+    public static final int MAX_COUNT_LIMIT = 10_000;
+    // 병렬 count 를 기다리는 시간 범위 (클라이언트가 큰 값을 보내도 count 커넥션을 오래 잡지 않도록)
+    public static final long MIN_COUNT_TIMEOUT_MILLIS = 10;
+    public static final long MAX_COUNT_TIMEOUT_MILLIS = 5_000;
+
+    public enum PagingStrategy {
+        SINGLE_QUERY,   // 조인 + 프로젝션 결과를 바로 offset/limit
+        ID_FIRST        // id만 먼저 페이징한 뒤 해당 id들로 프로젝션 조회
+    }
+
+    public enum CountMode {
+        EXACT,          // 매번 count 쿼리
+        CACHED,         // 조건별 count 결과 캐시 (TTL + 쓰기 시 무효화)
+        ESTIMATED       // countLimit + 1 건까지만 세고 멈춤 -> ApproximatePage
+    }
+
+    private PagingStrategy pagingStrategy = PagingStrategy.SINGLE_QUERY;
+    private CountMode countMode = CountMode.EXACT;
+    private int countLimit = 10_000;
+    // EXACT: count 를 별도 커넥션에서 본문 쿼리와 동시에 실행, countTimeoutMillis 를 넘기면 ApproximatePage
+    private boolean parallelCount;
+    private long countTimeoutMillis = 1_000;
+
+    public MemberPageOptions(PagingStrategy pagingStrategy) {
+        this.pagingStrategy = pagingStrategy;
+    }
+
+    public MemberPageOptions(CountMode countMode) {
+        this.countMode = countMode;
+    }
+
+    public void setCountLimit(int countLimit) {
+        this.countLimit = Math.max(1, Math.min(countLimit, MAX_COUNT_LIMIT));
+    }
+
+    public void setCountTimeoutMillis(long countTimeoutMillis) {
+        this.countTimeoutMillis = Math.max(MIN_COUNT_TIMEOUT_MILLIS, Math.min(countTimeoutMillis, MAX_COUNT_TIMEOUT_MILLIS));
+    }
+}
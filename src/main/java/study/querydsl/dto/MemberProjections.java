@@ -0,0 +1,41 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.types.FactoryExpression;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeam;
+
+/**
+ * DTO 별 DirectProjection (생성자를 직접 호출). DTO 마다 매핑은 여기 하나만 두고
+ * 문자열 JPQL 로 조회하는 곳(MemberSearchQueryTemplates 등)도 같은 식으로 select 절을 만들고 newInstance 로 매핑한다.
+ * ex) queryFactory.select(MemberProjections.memberTeamDto(member, team)).from(member).leftJoin(member.team, team)
+ */
+public final class MemberProjections {
+
+    private MemberProjections() {
+    }
+
+    public static FactoryExpression<MemberTeamDto> memberTeamDto(QMember member, QTeam team) {
+        return DirectProjection.of(MemberTeamDto.class,
+                member.id, member.username, member.age, team.id, team.name,
+                MemberTeamDto::new);
+    }
+
+    // member.team.id 는 FK 컬럼이라 team 조인 없음
+    public static FactoryExpression<MemberView> memberView(QMember member) {
+        return DirectProjection.of(MemberView.class,
+                member.id, member.username, member.age, member.team.id,
+                MemberView::new);
+    }
+
+    public static FactoryExpression<MemberDto> memberDto(QMember member) {
+        return DirectProjection.of(MemberDto.class,
+                member.username, member.age,
+                MemberDto::new);
+    }
+
+    public static FactoryExpression<UserDto> userDto(QMember member) {
+        return DirectProjection.of(UserDto.class,
+                member.username, member.age,
+                UserDto::new);
+    }
+}
@@ -0,0 +1,15 @@
+package study.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// 대량 적재 입력 한 줄 (팀은 이름으로 지정, 없으면 팀 없음)
+@Getter
+@ToString
+@AllArgsConstructor
+public class MemberRow {
+    private final String username;
+    private final int age;
+    private final String teamName;
+}
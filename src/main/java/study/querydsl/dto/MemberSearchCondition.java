@@ -1,16 +1,39 @@
 package study.querydsl.dto;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import static org.springframework.util.StringUtils.hasText;
+
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class MemberSearchCondition {
     // 회원명, 팀명, 나이(최소, 최대)
     private String username;
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
+    // 회원명 앞부분 일치 (인덱스 사용), 회원명 단어 검색 (전문 검색 인덱스)
+    private String usernamePrefix;
+    private String usernameKeyword;
+
+    public MemberSearchCondition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        this.username = username;
+        this.teamName = teamName;
+        this.ageGoe = ageGoe;
+        this.ageLoe = ageLoe;
+    }
+
+    // 검색 결과가 같은 조건은 같은 값이 되도록 (빈 문자열은 조건 없음과 동일) -> 캐시 키로 사용
+    public MemberSearchCondition normalized() {
+        MemberSearchCondition normalized = new MemberSearchCondition(
+                hasText(username) ? username : null,
+                hasText(teamName) ? teamName : null,
+                ageGoe,
+                ageLoe
+        );
+        normalized.setUsernamePrefix(hasText(usernamePrefix) ? usernamePrefix : null);
+        normalized.setUsernameKeyword(hasText(usernameKeyword) ? usernameKeyword.trim() : null);
+        return normalized;
+    }
 }
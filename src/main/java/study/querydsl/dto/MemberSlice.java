@@ -0,0 +1,20 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+public class MemberSlice {
+    private final List<MemberTeamDto> content;
+    private final boolean hasNext;
+    private final String nextCursor;    // 다음 페이지가 없으면 null
+
+    public MemberSlice(List<MemberTeamDto> content, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,7 @@
+package study.querydsl.dto;
+
+/**
+ * 회원 조회 전용 모델 (불변). 엔티티를 만들지 않으므로 영속성 컨텍스트 등록, 스냅샷, team 프록시가 없다.
+ */
+public record MemberView(Long id, String username, int age, Long teamId) {
+}
@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+/**
+ * 팀 + 나이별 회원 수 (팀 통계 재계산용). 회원이 없는 팀은 age null, count 0 한 행
+ */
+@Data
+public class TeamAgeCount {
+    private Long teamId;
+    private String teamName;
+    private Integer age;
+    private long count;
+
+    public TeamAgeCount(Long teamId, String teamName, Integer age, Long count) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.age = age;
+        this.count = count;
+    }
+}
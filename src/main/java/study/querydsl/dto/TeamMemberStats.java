@@ -0,0 +1,27 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+/**
+ * 팀별 회원 집계 (group by 결과). 회원이 없는 팀은 memberCount 0, 나이 값(ageSum 포함)은 null
+ */
+@Data
+public class TeamMemberStats {
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    private Long ageSum;
+    private Integer minAge;
+    private Integer maxAge;
+    private Double avgAge;
+
+    public TeamMemberStats(Long teamId, String teamName, Long memberCount, Long ageSum, Integer minAge, Integer maxAge, Double avgAge) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.avgAge = avgAge;
+    }
+}
@@ -1,16 +1,26 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import study.querydsl.event.EntityChangeListener;
 
 import javax.persistence.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age, member_id"),     // 나이 범위 + (age, id) 커서 페이징
+        @Index(name = "idx_member_team_age", columnList = "team_id, age, member_id")
+})
+@EntityListeners(EntityChangeListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
-    @Id @GeneratedValue
+    // 대량 insert 시 행마다 시퀀스를 조회하지 않도록 50개씩 미리 할당 (pooled optimizer)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
 
@@ -0,0 +1,71 @@
+package study.querydsl.event;
+
+import org.springframework.context.ApplicationEventPublisher;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PrePersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA 엔티티 리스너 -> 스프링 이벤트로 변환.
+ * 하이버네이트가 SpringBeanContainer로 생성하므로 생성자 주입이 가능하다.
+ * (벌크 연산은 영속성 컨텍스트를 거치지 않으므로 여기로 들어오지 않음)
+ */
+public class EntityChangeListener {
+
+    private static final ThreadLocal<Boolean> SUPPRESSED = ThreadLocal.withInitial(() -> false);
+
+    private final ApplicationEventPublisher publisher;
+
+    public EntityChangeListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * 현재 스레드에서 행마다 발행되는 이벤트를 끔 (try-with-resources 로 사용).
+     * 대량 적재처럼 작업이 끝난 뒤 한 번만 알리는 쪽에서 사용 -> 알리는 것은 호출한 쪽 책임
+     * (TeamStatsStore 의 행 단위 증감분도 모으지 않음)
+     */
+    public static Suppression suppress() {
+        boolean previous = SUPPRESSED.get();
+        SUPPRESSED.set(true);
+        return () -> SUPPRESSED.set(previous);
+    }
+
+    public static boolean isSuppressed() {
+        return SUPPRESSED.get();
+    }
+
+    public interface Suppression extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    // 새 팀은 flush 전에도 팀명으로 바로 찾을 수 있어야 하므로 persist 시점에 한 번 더 알림
+    @PrePersist
+    public void onPersist(Object entity) {
+        if (SUPPRESSED.get()) {
+            return;
+        }
+        if (entity instanceof Team) {
+            publisher.publishEvent(new TeamChangedEvent(((Team) entity).getId()));
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (SUPPRESSED.get()) {
+            return;
+        }
+        if (entity instanceof Member) {
+            publisher.publishEvent(new MemberChangedEvent(((Member) entity).getId()));
+        } else if (entity instanceof Team) {
+            publisher.publishEvent(new TeamChangedEvent(((Team) entity).getId()));
+        }
+    }
+}
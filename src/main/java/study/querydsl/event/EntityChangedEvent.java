@@ -0,0 +1,8 @@
+package study.querydsl.event;
+
+/**
+ * Member/Team 쓰기가 DB에 반영(flush)될 때 발행되는 이벤트.
+ * 조회 캐시들은 이 이벤트를 구독해서 무효화한다.
+ */
+public abstract class EntityChangedEvent {
+}
@@ -0,0 +1,21 @@
+package study.querydsl.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 벌크 update/delete 로 여러 회원이 한 번에 바뀜 (엔티티 리스너를 거치지 않으므로 직접 발행).
+ * 대량 적재처럼 id 를 모으지 않는 경우 memberIds 는 빈 목록 (= 어떤 회원이든 바뀌었을 수 있음)
+ */
+@Getter
+@ToString
+public class MemberBulkChangedEvent extends MemberChangedEvent {
+    private final List<Long> memberIds;
+
+    public MemberBulkChangedEvent(List<Long> memberIds) {
+        super(null);
+        this.memberIds = memberIds;
+    }
+}
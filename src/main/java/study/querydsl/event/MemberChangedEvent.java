@@ -0,0 +1,14 @@
+package study.querydsl.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class MemberChangedEvent extends EntityChangedEvent {
+    private final Long memberId;
+
+    public MemberChangedEvent(Long memberId) {
+        this.memberId = memberId;
+    }
+}
@@ -0,0 +1,14 @@
+package study.querydsl.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class TeamChangedEvent extends EntityChangedEvent {
+    private final Long teamId;
+
+    public TeamChangedEvent(Long teamId) {
+        this.teamId = teamId;
+    }
+}
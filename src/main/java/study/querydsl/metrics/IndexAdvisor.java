@@ -0,0 +1,175 @@
+package study.querydsl.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.TeamNameResolver;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchQueryTemplates;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 기동 시 MemberSearchCondition 조건들이 인덱스를 탈 수 있는지 확인하고, 아니면 경고 로그.
+ * 1. JDBC 메타데이터: 조건 컬럼을 선두로 하는 인덱스가 있는지
+ * 2. H2 면 조건 모양별로 리포지토리 검색을 한 건만(limit 1) 실행해서 나간 SQL 을 모으고(SqlCaptureListener),
+ *    그 EXPLAIN 결과에 tableScan 이 있는지 -> 검색 쿼리가 바뀌면 검사 대상도 같이 바뀐다
+ *    (테이블이 커도 기동 시 결과를 읽어 오지 않음. SQL 은 p6spy 로 모으므로 p6spy 가 꺼져 있으면 검사하지 못했다고 경고)
+ */
+@Slf4j
+@Component
+public class IndexAdvisor {
+
+    private final DataSource dataSource;
+    private final SqlCaptureListener sqlCaptureListener;
+    private final MemberSearchQueryTemplates queryTemplates;
+    private final MemberRepository memberRepository;
+    private final TeamNameResolver teamNameResolver;
+    private final EntityManager em;
+    private final TransactionTemplate rollbackTransaction;
+    private final boolean enabled;
+
+    public IndexAdvisor(DataSource dataSource, SqlCaptureListener sqlCaptureListener,
+                        MemberSearchQueryTemplates queryTemplates, MemberRepository memberRepository,
+                        TeamNameResolver teamNameResolver, EntityManager em, PlatformTransactionManager transactionManager,
+                        @Value("${querydsl.index-advisor.enabled:true}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.sqlCaptureListener = sqlCaptureListener;
+        this.queryTemplates = queryTemplates;
+        this.memberRepository = memberRepository;
+        this.teamNameResolver = teamNameResolver;
+        this.em = em;
+        this.rollbackTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void adviseOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            check().forEach(warning -> log.warn("index advisor: {}", warning));
+        } catch (SQLException | RuntimeException e) {
+            log.warn("index advisor failed", e);
+        }
+    }
+
+    public List<String> check() throws SQLException {
+        List<String> warnings = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            boolean h2 = "H2".equalsIgnoreCase(metaData.getDatabaseProductName());
+            for (Shape shape : shapes()) {
+                if (!leadingIndexColumns(metaData, shape.table).contains(shape.column.toUpperCase(Locale.ROOT))) {
+                    warnings.add(shape.name + ": no index on " + shape.table + " starting with " + shape.column);
+                }
+                if (h2) {
+                    List<String> captured = capture(shape);
+                    if (captured.isEmpty()) {
+                        warnings.add(shape.name + ": no SQL captured, plan not checked (is p6spy enabled?)");
+                    }
+                    for (String sql : captured) {
+                        String plan = explain(connection, sql);
+                        if (plan.contains(".tableScan")) {
+                            warnings.add(shape.name + ": full scan -> " + plan.replaceAll("\\s+", " "));
+                        }
+                    }
+                }
+            }
+        }
+        return warnings;
+    }
+
+    // MemberRepositoryImpl / MemberJpaRepository / TeamNameResolver 가 쓰는 조건 모양
+    // 검색은 MemberJpaRepository.search 와 같은 템플릿 쿼리에 limit 1 만 붙여서 실행 (결과를 전부 읽지 않음)
+    // 팀 조건은 실제로 있는 팀명이어야 member 쿼리까지 나가므로 아무 팀이나 하나 골라서 사용
+    private List<Shape> shapes() {
+        String teamName = rollbackTransaction.execute(status -> em
+                .createQuery("select t.name from Team t order by t.id", String.class)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst()
+                .orElse("teamA"));
+        MemberSearchCondition byPrefix = new MemberSearchCondition();
+        byPrefix.setUsernamePrefix("member1");
+        return List.of(
+                new Shape("usernameEq", "member", "username",
+                        () -> queryTemplates.fetch(new MemberSearchCondition("member1", null, null, null), 0, 1)),
+                new Shape("usernamePrefix", "member", "username",
+                        () -> queryTemplates.fetch(byPrefix, 0, 1)),
+                new Shape("teamIdIn", "member", "team_id",
+                        () -> queryTemplates.fetch(new MemberSearchCondition(null, teamName, null, null), 0, 1)),
+                new Shape("ageGoe/ageLoe", "member", "age",
+                        () -> queryTemplates.fetch(new MemberSearchCondition(null, null, 10, 20), 0, 1)),
+                new Shape("teamIdIn + age", "member", "team_id",
+                        () -> memberRepository.searchSlice(new MemberSearchCondition(null, teamName, 10, null),
+                                MemberCursor.first(MemberCursor.SortKey.AGE), 1)),
+                new Shape("teamNameEq (TeamNameResolver)", "team", "name",
+                        () -> teamNameResolver.resolve(teamName))
+        );
+    }
+
+    // 팀명 캐시에 걸리면 팀 조회 SQL 이 안 나가므로 비우고 실행
+    // EXPLAIN 과 같은 DB 에서 실행되도록 read-only 가 아닌 트랜잭션(replica 로 라우팅 X)으로 실행하고 롤백
+    private List<String> capture(Shape shape) {
+        return rollbackTransaction.execute(status -> {
+            status.setRollbackOnly();
+            teamNameResolver.invalidateAll();
+            return sqlCaptureListener.capture(shape.search);
+        });
+    }
+
+    private static Set<String> leadingIndexColumns(DatabaseMetaData metaData, String table) throws SQLException {
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Set<String> columns = new HashSet<>();
+        try (ResultSet indexes = metaData.getIndexInfo(null, null, tableName, false, true)) {
+            while (indexes.next()) {
+                String column = indexes.getString("COLUMN_NAME");
+                if (indexes.getShort("ORDINAL_POSITION") == 1 && column != null) {
+                    columns.add(column.toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+        return columns;
+    }
+
+    private static String explain(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("explain " + sql)) {
+            return plan.next() ? plan.getString(1) : "";
+        }
+    }
+
+    private static class Shape {
+        private final String name;
+        private final String table;
+        private final String column;
+        private final Supplier<?> search;
+
+        private Shape(String name, String table, String column, Supplier<?> search) {
+            this.name = name;
+            this.table = table;
+            this.column = column;
+            this.search = search;
+        }
+    }
+}
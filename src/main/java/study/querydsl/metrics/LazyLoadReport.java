@@ -0,0 +1,27 @@
+package study.querydsl.metrics;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 한 범위(요청 / 테스트) 안에서 실행된 statement 수와 지연 로딩으로 실행된 statement 수.
+ * lazyLoads 의 키는 엔티티 이름(프록시 초기화) 또는 컬렉션 role(컬렉션 초기화)
+ */
+@Getter
+@ToString
+public class LazyLoadReport {
+    private final long statements;
+    private final Map<String, Integer> lazyLoads;
+
+    public LazyLoadReport(long statements, Map<String, Integer> lazyLoads) {
+        this.statements = statements;
+        this.lazyLoads = Collections.unmodifiableMap(lazyLoads);
+    }
+
+    public int lazyLoadsOf(String role) {
+        return lazyLoads.getOrDefault(role, 0);
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.metrics;
+
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.QueryResults;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 실행 메소드(fetch, fetchOne, ...)만 감싸서 QueryMetrics 에 기록하는 JPAQuery.
+ * select()/where() 등은 this 를 그대로 반환하므로 쿼리를 조립하는 동안 타입이 유지된다.
+ *
+ * query 태그는 JPQL 이 아니라 호출 위치에서 지정한 짧은 이름 (MeteredJPAQueryFactory.named 또는 name()).
+ * 매번 JPQL 을 직렬화하거나 스택을 뒤지지 않고, 태그 종류도 이름을 붙인 곳 수만큼으로 제한됨
+ */
+public class MeteredJPAQuery<T> extends JPAQuery<T> {
+
+    private final QueryMetrics queryMetrics;
+    private String name = QueryMetrics.UNNAMED;
+
+    public MeteredJPAQuery(EntityManager em, QueryMetrics queryMetrics) {
+        super(em);
+        this.queryMetrics = queryMetrics;
+    }
+
+    public MeteredJPAQuery<T> name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    @Override
+    public List<T> fetch() {
+        return measure("fetch", super::fetch, List::size);
+    }
+
+    @Override
+    public T fetchOne() throws NonUniqueResultException {
+        return measure("fetchOne", super::fetchOne, result -> result != null ? 1 : 0);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public QueryResults<T> fetchResults() {
+        return measure("fetchResults", super::fetchResults, results -> results.getResults().size());
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public long fetchCount() {
+        return measure("fetchCount", super::fetchCount, count -> 1);
+    }
+
+    // 예외가 나도 기록 (outcome=error)
+    private <R> R measure(String operation, Supplier<R> query, ToLongFunction<R> rows) {
+        long start = System.nanoTime();
+        R result = null;
+        boolean success = false;
+        try {
+            result = query.get();
+            success = true;
+            return result;
+        } finally {
+            queryMetrics.record(name, operation, success ? QueryMetrics.SUCCESS : QueryMetrics.ERROR,
+                    System.nanoTime() - start, success ? rows.applyAsLong(result) : 0);
+        }
+    }
+}
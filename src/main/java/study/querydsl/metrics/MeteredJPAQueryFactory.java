@@ -0,0 +1,41 @@
+package study.querydsl.metrics;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import javax.persistence.EntityManager;
+
+/**
+ * select / selectFrom / from 등은 모두 query() 를 거치므로 여기서 MeteredJPAQuery 를 만들어 준다.
+ * (update / delete 절은 측정하지 않음)
+ *
+ * query 태그는 호출 위치에서 named("member.searchWithTeam") 으로 붙인 짧은 이름.
+ * 이름 없이 만든 쿼리는 QueryMetrics.UNNAMED 로 묶인다.
+ */
+public class MeteredJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager entityManager;
+    private final QueryMetrics queryMetrics;
+    private final String name;
+
+    public MeteredJPAQueryFactory(EntityManager entityManager, QueryMetrics queryMetrics) {
+        this(entityManager, queryMetrics, QueryMetrics.UNNAMED);
+    }
+
+    private MeteredJPAQueryFactory(EntityManager entityManager, QueryMetrics queryMetrics, String name) {
+        super(entityManager);
+        this.entityManager = entityManager;
+        this.queryMetrics = queryMetrics;
+        this.name = name;
+    }
+
+    // ex) queryFactory.named("member.searchWithTeam").selectFrom(member)...fetch()
+    public MeteredJPAQueryFactory named(String name) {
+        return new MeteredJPAQueryFactory(entityManager, queryMetrics, name);
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new MeteredJPAQuery<Void>(entityManager, queryMetrics).name(name);
+    }
+}
@@ -0,0 +1,159 @@
+package study.querydsl.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * N+1 감지기.
+ * 하이버네이트 이벤트로 프록시 초기화(ex. Member.team)와 컬렉션 초기화(ex. Team.members) 중에 실행된 statement 수를 세고,
+ * 같은 대상의 지연 로딩 statement 가 한 범위 안에서 threshold 개를 넘으면 경고한다. (fail-on-detection 이면 예외)
+ * 배치 페치로 이미 영속성 컨텍스트에 올라온 대상의 초기화는 statement 가 없으므로 세지 않는다.
+ * (지연 로딩 중에 이어진 다른 로딩의 statement 는 바깥 대상에도 함께 셈)
+ *
+ * 범위는 begin() ~ end() 사이 현재 스레드. HTTP 요청은 NPlusOneInterceptor 가 감싼다.
+ */
+@Slf4j
+@Component
+public class NPlusOneDetector {
+
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    private final EntityManagerFactory emf;
+    private final int threshold;
+    private final boolean failOnDetection;
+
+    public NPlusOneDetector(EntityManagerFactory emf,
+                            @Value("${querydsl.n-plus-one.threshold:10}") int threshold,
+                            @Value("${querydsl.n-plus-one.fail-on-detection:false}") boolean failOnDetection) {
+        this.emf = emf;
+        this.threshold = threshold;
+        this.failOnDetection = failOnDetection;
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        // 기본 리스너(실제 로딩) 앞뒤로 statement 수를 재서 차이를 셈
+        // 프록시 초기화는 IMMEDIATE_LOAD 로 들어옴 (em.find 등은 다른 타입)
+        registry.prependListeners(EventType.LOAD, (LoadEventListener) (event, loadType) -> {
+            if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+                onLazyLoadStart(event);
+            }
+        });
+        registry.appendListeners(EventType.LOAD, (LoadEventListener) (event, loadType) -> {
+            if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+                onLazyLoadEnd(event, event.getEntityClassName());
+            }
+        });
+        registry.prependListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) this::onLazyLoadStart);
+        registry.appendListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) event ->
+                onLazyLoadEnd(event, event.getCollection().getRole()));
+    }
+
+    public void begin() {
+        boolean ownsCounter = !RequestStatementCounter.isActive();
+        if (ownsCounter) {
+            RequestStatementCounter.start();
+        }
+        SCOPE.set(new Scope(RequestStatementCounter.current(), ownsCounter));
+    }
+
+    public LazyLoadReport end() {
+        Scope scope = SCOPE.get();
+        if (scope == null) {
+            return new LazyLoadReport(0, Map.of());
+        }
+        SCOPE.remove();
+
+        long statements = RequestStatementCounter.current() - scope.startStatements;
+        if (scope.ownsCounter) {
+            RequestStatementCounter.stop();
+        }
+        return new LazyLoadReport(statements, scope.lazyLoads);
+    }
+
+    /**
+     * 범위를 끝내고 결과를 검사 (SearchExecutor 작업 스레드처럼 끝난 뒤에도 결과를 실패시킬 수 있는 범위).
+     * fail-on-detection 이면 범위 안에서 threshold 를 넘은 적이 있을 때 예외 -> 요청 스레드와 같이 응답이 실패.
+     * 지연 로딩 중에 던진 예외를 조회 코드가 삼켰더라도 결과가 그대로 나가지 않도록 끝날 때 한 번 더 확인
+     */
+    public LazyLoadReport endAndVerify(String scopeName) {
+        Scope scope = SCOPE.get();
+        String detected = scope != null ? scope.detected : null;
+        LazyLoadReport report = end();
+        if (!report.getLazyLoads().isEmpty()) {
+            log.debug("{} -> {}", scopeName, report);
+        }
+        if (detected != null && failOnDetection) {
+            throw new NPlusOneException(detected);
+        }
+        return report;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    // event: LoadEvent 또는 InitializeCollectionEvent
+    private void onLazyLoadStart(Object event) {
+        Scope scope = SCOPE.get();
+        if (scope != null) {
+            scope.loadStarts.put(event, RequestStatementCounter.current());
+        }
+    }
+
+    private void onLazyLoadEnd(Object event, String role) {
+        Scope scope = SCOPE.get();
+        if (scope == null) {
+            return;
+        }
+        Long start = scope.loadStarts.remove(event);
+        if (start == null) {
+            return;
+        }
+        int statements = Math.toIntExact(RequestStatementCounter.current() - start);
+        if (statements == 0) {
+            return;     // 영속성 컨텍스트에 이미 있던 대상 (배치 페치 등)
+        }
+        int count = scope.lazyLoads.merge(role, statements, Integer::sum);
+        if (count > threshold && count - statements <= threshold) {
+            String message = "N+1 suspected: " + role + " lazily loaded with more than " + threshold
+                    + " statements in one scope. consider fetch join / @EntityGraph / batch fetching";
+            if (scope.detected == null) {
+                scope.detected = message;
+            }
+            if (failOnDetection) {
+                throw new NPlusOneException(message);
+            }
+            log.warn(message);
+        }
+    }
+
+    private static class Scope {
+        private final long startStatements;
+        private final boolean ownsCounter;
+        private final Map<String, Integer> lazyLoads = new HashMap<>();
+        private final Map<Object, Long> loadStarts = new IdentityHashMap<>();
+        private String detected;    // 처음 threshold 를 넘었을 때의 메시지
+
+        private Scope(long startStatements, boolean ownsCounter) {
+            this.startStatements = startStatements;
+            this.ownsCounter = ownsCounter;
+        }
+    }
+}
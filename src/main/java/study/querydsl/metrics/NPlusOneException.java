@@ -0,0 +1,7 @@
+package study.querydsl.metrics;
+
+public class NPlusOneException extends RuntimeException {
+    public NPlusOneException(String message) {
+        super(message);
+    }
+}
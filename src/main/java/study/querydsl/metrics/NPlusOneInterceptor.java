@@ -0,0 +1,37 @@
+package study.querydsl.metrics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NPlusOneInterceptor implements AsyncHandlerInterceptor {
+
+    private final NPlusOneDetector nPlusOneDetector;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        nPlusOneDetector.begin();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        LazyLoadReport report = nPlusOneDetector.end();
+        if (!report.getLazyLoads().isEmpty()) {
+            log.debug("{} {} -> {}", request.getMethod(), request.getRequestURI(), report);
+        }
+    }
+
+    // 비동기 응답: 조회는 SearchExecutor 스레드에서 따로 검사하므로 요청 스레드의 범위만 정리
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        nPlusOneDetector.end();
+    }
+}
@@ -0,0 +1,43 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 쿼리 이름(호출 위치에서 붙인 짧은 이름, ex. member.searchWithTeam)별 실행 시간 / 결과 행 수.
+ * 실행 시간은 outcome(success / error) 태그로 나눠서 실패한 쿼리도 남김
+ */
+@Component
+public class QueryMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+    public static final String UNNAMED = "unnamed";
+
+    private final MeterRegistry meterRegistry;
+
+    public QueryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String query, String operation, String outcome, long elapsedNanos, long rows) {
+        Timer.builder("querydsl.query")
+                .tag("query", query)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (!SUCCESS.equals(outcome)) {
+            return;
+        }
+        DistributionSummary.builder("querydsl.query.rows")
+                .tag("query", query)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(rows);
+    }
+}
@@ -0,0 +1,58 @@
+package study.querydsl.metrics;
+
+/**
+ * 현재 스레드(= HTTP 요청)에서 하이버네이트가 실행한 JDBC statement 수 (StatementCountInspector 가 올림).
+ * start() 를 호출하지 않은 스레드에서는 세지 않는다.
+ */
+public final class RequestStatementCounter {
+
+    private static final ThreadLocal<long[]> COUNTER = new ThreadLocal<>();
+
+    private RequestStatementCounter() {
+    }
+
+    public static void start() {
+        COUNTER.set(new long[1]);
+    }
+
+    public static boolean isActive() {
+        return COUNTER.get() != null;
+    }
+
+    public static void increment() {
+        long[] counter = COUNTER.get();
+        if (counter != null) {
+            counter[0]++;
+        }
+    }
+
+    public static long current() {
+        long[] counter = COUNTER.get();
+        return counter != null ? counter[0] : 0;
+    }
+
+    // 비동기 처리: 요청 스레드의 카운터를 다른 스레드로 넘길 때 사용 (동시에 두 스레드가 쓰지는 않음)
+    public static long[] capture() {
+        return COUNTER.get();
+    }
+
+    public static void attach(long[] counter) {
+        if (counter != null) {
+            COUNTER.set(counter);
+        } else {
+            COUNTER.remove();
+        }
+    }
+
+    public static long[] detach() {
+        long[] counter = COUNTER.get();
+        COUNTER.remove();
+        return counter;
+    }
+
+    public static long stop() {
+        long count = current();
+        COUNTER.remove();
+        return count;
+    }
+}
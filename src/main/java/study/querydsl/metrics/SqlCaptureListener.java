@@ -0,0 +1,48 @@
+package study.querydsl.metrics;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * capture 로 감싼 작업이 현재 스레드에서 실행한 select 문을 파라미터 값이 들어간 SQL 로 모은다.
+ * (IndexAdvisor, 실행 계획 회귀 테스트에서 리포지토리가 실제로 만드는 SQL 을 얻을 때 사용)
+ * capture 중이 아니면 ThreadLocal 조회 한 번으로 끝남.
+ */
+@Component
+public class SqlCaptureListener extends SimpleJdbcEventListener {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    public List<String> capture(Runnable query) {
+        return capture(() -> {
+            query.run();
+            return null;
+        });
+    }
+
+    public List<String> capture(Supplier<?> query) {
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            query.get();
+        } finally {
+            CAPTURED.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        List<String> statements = CAPTURED.get();
+        String sql = statementInformation.getSqlWithValues();
+        if (statements != null && sql != null && sql.trim().toLowerCase().startsWith("select")) {
+            statements.add(sql.trim());
+        }
+    }
+}
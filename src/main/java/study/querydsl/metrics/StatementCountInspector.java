@@ -0,0 +1,17 @@
+package study.querydsl.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 하이버네이트가 statement 를 준비할 때마다 RequestStatementCounter 를 올린다.
+ * p6spy(decorator.datasource.enabled=false 등)와 상관없이 세어지므로 N+1 감지 / 요청별 statement 수가 항상 동작한다.
+ * (하이버네이트를 거치지 않는 JdbcTemplate 등은 세지 않음)
+ */
+public class StatementCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestStatementCounter.increment();
+        return sql;
+    }
+}
@@ -0,0 +1,53 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청 하나에서 실행된 statement 수를 querydsl.request.statements 로 기록 (uri 패턴별)
+ * 비동기 응답이면 카운터를 요청 속성에 보관했다가 async 디스패치에서 이어서 사용한다.
+ */
+@Component
+public class StatementCountInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SUSPENDED_COUNTER = StatementCountInterceptor.class.getName() + ".counter";
+
+    private final MeterRegistry meterRegistry;
+
+    public StatementCountInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long[] suspended = (long[]) request.getAttribute(SUSPENDED_COUNTER);
+        if (suspended != null) {
+            request.removeAttribute(SUSPENDED_COUNTER);
+            RequestStatementCounter.attach(suspended);
+        } else {
+            RequestStatementCounter.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(SUSPENDED_COUNTER, RequestStatementCounter.detach());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        long statements = RequestStatementCounter.stop();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("querydsl.request.statements")
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .register(meterRegistry)
+                .record(statements);
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.metrics;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy 가 감싼 DataSource 의 모든 statement 실행을 받는 리스너.
+ * (빈으로 등록하면 p6spy-spring-boot-starter 가 자동으로 연결해 줌)
+ * 느린 쿼리는 바인딩된 파라미터 값까지 로그로 남긴다. (요청별 statement 수는 StatementCountInspector 가 셈)
+ */
+@Slf4j
+@Component
+public class StatementMetricsListener extends SimpleJdbcEventListener {
+
+    private final long slowQueryThresholdNanos;
+
+    public StatementMetricsListener(@Value("${querydsl.metrics.slow-query-threshold:200ms}") Duration slowQueryThreshold) {
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (timeElapsedNanos >= slowQueryThresholdNanos) {
+            log.warn("slow query ({} ms): {}",
+                    TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), statementInformation.getSqlWithValues());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.TeamNameResolver;
+import study.querydsl.dto.BulkMutationResult;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.MemberBulkChangedEvent;
+import study.querydsl.metrics.MeteredJPAQueryFactory;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 조건으로 찾은 회원을 id 범위 단위(chunkSize)로 나눠서 벌크 update/delete.
+ * - 청크마다 트랜잭션(REQUIRED): 바깥 트랜잭션이 있으면 참여, 없으면 청크마다 커밋 -> 락을 오래 잡지 않음
+ * - 실행 전 flush 로 쓰기 지연된 변경을 먼저 반영
+ * - 영속성 컨텍스트에 있던 회원은 update -> refresh, delete -> detach (flush/clear 를 호출자가 챙기지 않아도 됨)
+ * - 조회 캐시들은 MemberBulkChangedEvent 로 무효화 (Member 2차 캐시 영역은 하이버네이트가 벌크 쿼리 시 비움)
+ */
+@Repository
+public class MemberBulkOperations {
+
+    private final EntityManager em;
+    private final MeteredJPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final TeamNameResolver teamNameResolver;
+    private final MemberFullTextIndex fullTextIndex;
+    private final ApplicationEventPublisher publisher;
+    private final int chunkSize;
+
+    public MemberBulkOperations(EntityManager em, MeteredJPAQueryFactory queryFactory,
+                                PlatformTransactionManager transactionManager,
+                                TeamNameResolver teamNameResolver, MemberFullTextIndex fullTextIndex,
+                                ApplicationEventPublisher publisher,
+                                @Value("${querydsl.bulk.chunk-size:1000}") int chunkSize) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.teamNameResolver = teamNameResolver;
+        this.fullTextIndex = fullTextIndex;
+        this.publisher = publisher;
+        this.chunkSize = chunkSize;
+    }
+
+    // ex) updateWhere(condition, update -> update.set(member.age, member.age.add(1)))
+    public BulkMutationResult updateWhere(MemberSearchCondition condition, Consumer<JPAUpdateClause> setter) {
+        return execute(condition, (where, ids) -> {
+            JPAUpdateClause update = queryFactory.update(member);
+            setter.accept(update);
+            long count = update.where(where).execute();
+            ids.forEach(this::refreshIfManaged);
+            return count;
+        });
+    }
+
+    public BulkMutationResult deleteWhere(MemberSearchCondition condition) {
+        return execute(condition, (where, ids) -> {
+            long count = queryFactory.delete(member).where(where).execute();
+            ids.forEach(this::detachIfManaged);
+            return count;
+        });
+    }
+
+    private BulkMutationResult execute(MemberSearchCondition condition, ChunkMutation mutation) {
+        Predicate[] predicates = MemberSearchPredicate.of(condition, teamNameResolver::resolve, fullTextIndex::matches).toArray();
+        List<Long> chunkCounts = new ArrayList<>();
+        long lastId = 0L;
+        while (true) {
+            long after = lastId;
+            List<Long> ids = transactionTemplate.execute(status -> {
+                em.flush();
+                List<Long> chunk = queryFactory.named("member.bulk.chunkIds")
+                        .select(member.id)
+                        .from(member)
+                        .where(predicates)
+                        .where(member.id.gt(after))
+                        .orderBy(member.id.asc())
+                        .limit(chunkSize)
+                        .fetch();
+                if (chunk.isEmpty()) {
+                    return chunk;
+                }
+                // 같은 조건 + id 범위로 실행 -> 그 사이에 바뀐 행은 조건으로 다시 걸러짐
+                Predicate[] where = new Predicate[predicates.length + 1];
+                System.arraycopy(predicates, 0, where, 0, predicates.length);
+                where[predicates.length] = member.id.between(chunk.get(0), chunk.get(chunk.size() - 1));
+                chunkCounts.add(mutation.apply(where, chunk));
+                publisher.publishEvent(new MemberBulkChangedEvent(chunk));
+                return chunk;
+            });
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+        }
+        return new BulkMutationResult(chunkCounts);
+    }
+
+    private void refreshIfManaged(Long id) {
+        Member managed = findManaged(id);
+        if (managed == null) {
+            return;
+        }
+        Team before = managed.getTeam();
+        em.refresh(managed);
+        if (before != managed.getTeam()) {
+            removeFromTeam(before, managed);
+            if (isMembersLoaded(managed.getTeam())) {
+                managed.getTeam().getMembers().add(managed);
+            }
+        }
+    }
+
+    private void detachIfManaged(Long id) {
+        Member managed = findManaged(id);
+        if (managed == null) {
+            return;
+        }
+        removeFromTeam(managed.getTeam(), managed);
+        em.detach(managed);
+    }
+
+    // 이미 로딩된 team.members 컬렉션에도 반영 (연관관계 주인이 아니므로 DB 에는 영향 없음)
+    private void removeFromTeam(Team team, Member target) {
+        if (isMembersLoaded(team)) {
+            team.getMembers().remove(target);
+        }
+    }
+
+    // 프록시를 초기화하지 않도록 team 자체가 로딩된 경우만 확인
+    private static boolean isMembersLoaded(Team team) {
+        return team != null && Hibernate.isInitialized(team) && Hibernate.isInitialized(team.getMembers());
+    }
+
+    private Member findManaged(Long id) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        EntityKey key = session.generateEntityKey(id, persister);
+        return (Member) session.getPersistenceContextInternal().getEntity(key);
+    }
+
+    @FunctionalInterface
+    private interface ChunkMutation {
+        long apply(Predicate[] where, List<Long> ids);
+    }
+}
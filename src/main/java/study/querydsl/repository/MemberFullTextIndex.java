@@ -0,0 +1,109 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 회원명 키워드(단어) 검색 조건.
+ * H2 내장 전문 검색(FT_CREATE_INDEX)을 쓰고, 인덱스는 H2 가 member 테이블 트리거로 쓰기와 함께 갱신한다.
+ * (단어 단위 일치: "kim minsu" 는 "minsu" 로 찾을 수 있지만 "min" 으로는 못 찾음)
+ *
+ * 조건은 member.id in (select ... from ft_search_data(:keyword, 0, 0)) 서브쿼리로 DB 안에서 거른다 (MATCH_FUNCTION).
+ * 찾은 id 를 애플리케이션으로 가져오지 않으므로 결과가 많아도 힙/IN 파라미터 수가 늘지 않고,
+ * 페이징/limit 도 DB 에서 적용되며 SQL 문자열이 키워드마다 같아서 쿼리 플랜 캐시에 그대로 걸린다.
+ *
+ * 성능 저하 모드: H2 가 아니거나 꺼져 있으면 lower(username) like '%keyword%' 로 대신 찾는다.
+ * 전체 스캔이고, 단어가 아니라 부분 문자열 일치라 결과도 다를 수 있음 ("min" 으로 "kim minsu" 가 찾아짐)
+ */
+@Slf4j
+@Component
+public class MemberFullTextIndex {
+
+    // HibernateConfig 가 등록하는 HQL 함수: function('member_ft_match', member.id, keyword)
+    public static final String MATCH_FUNCTION = "member_ft_match";
+    public static final String MATCH_SQL =
+            "(?1 in (select cast(array_get(keys, 1) as bigint) from ft_search_data(?2, 0, 0) where \"TABLE\" = 'MEMBER'))";
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private boolean available;
+
+    // EntityManagerFactory: 스키마 생성(ddl-auto)이 끝난 뒤에 인덱스를 만들도록 의존
+    public MemberFullTextIndex(EntityManagerFactory emf, DataSource dataSource,
+                               @Value("${querydsl.member.full-text.enabled:true}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void createIndex() {
+        if (!enabled || !isH2()) {
+            return;
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create alias if not exists FT_INIT for \"org.h2.fulltext.FullText.init\"");
+        jdbcTemplate.execute("call FT_INIT()");
+        // 인덱스와 갱신 트리거가 둘 다 있으면 그대로 사용 (기동할 때마다 전체 재색인하지 않음)
+        // 스키마를 다시 만든 경우(create-drop)에는 트리거가 테이블과 함께 사라지므로 남은 인덱스 정보를 지우고 새로 색인
+        boolean indexed = count(jdbcTemplate, "select count(*) from FT.INDEXES where \"SCHEMA\" = 'PUBLIC' and \"TABLE\" = 'MEMBER'") > 0;
+        boolean triggered = count(jdbcTemplate, "select count(*) from INFORMATION_SCHEMA.TRIGGERS where TRIGGER_SCHEMA = 'PUBLIC' and TRIGGER_NAME = 'FT_MEMBER'") > 0;
+        if (!indexed || !triggered) {
+            if (indexed) {
+                jdbcTemplate.execute("call FT_DROP_INDEX('PUBLIC', 'MEMBER')");
+            }
+            jdbcTemplate.execute("call FT_CREATE_INDEX('PUBLIC', 'MEMBER', 'USERNAME')");
+            log.info("member username full-text index created");
+        }
+        available = true;
+    }
+
+    // 회원명 키워드 조건: 전문 검색 서브쿼리, 전문 검색을 쓸 수 없으면 username like 조건 (성능 저하 모드)
+    public BooleanExpression matches(String keyword) {
+        return available ? fullTextMatch(keyword) : usernameContains(keyword);
+    }
+
+    static BooleanExpression fullTextMatch(String keyword) {
+        return Expressions.booleanTemplate("function('" + MATCH_FUNCTION + "', {0}, {1}) = true", member.id, keyword);
+    }
+
+    // 성능 저하 모드의 조건 (단어 단위가 아니라 부분 문자열 일치라 "min" 으로도 찾음)
+    static BooleanExpression usernameContains(String keyword) {
+        return member.username.lower().like("%" + escapeLike(keyword.toLowerCase(Locale.ROOT)) + "%", '!');
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    // querydsl 과 같은 escape 문자(!) 사용
+    static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate, String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+
+    private boolean isH2() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "H2".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            log.warn("could not determine database for full-text index", e);
+            return false;
+        }
+    }
+}
@@ -1,33 +1,70 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.FactoryExpression;
 import com.querydsl.core.types.Predicate;
-import com.querydsl.core.types.Projections;
-import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.core.types.dsl.Expressions;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.TeamNameResolver;
+import study.querydsl.config.PrimaryReads;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberView;
 import study.querydsl.entity.Member;
-import study.querydsl.entity.QTeam;
+import study.querydsl.metrics.MeteredJPAQueryFactory;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-import static org.springframework.util.StringUtils.*;
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.dto.MemberProjections.memberTeamDto;
+import static study.querydsl.dto.MemberProjections.memberView;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.*;
 
 @Repository
 public class MemberJpaRepository {
-    private final EntityManager em;
-    private final JPAQueryFactory queryFactory;
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final FactoryExpression<MemberView> VIEW = memberView(member);
 
-    public MemberJpaRepository(EntityManager em) {
+    private final EntityManager em;
+    private final MeteredJPAQueryFactory queryFactory;
+    private final MemberSearchQueryTemplates queryTemplates;
+    private final TeamNameResolver teamNameResolver;
+    private final MemberFullTextIndex fullTextIndex;
+    private final SessionFactory sessionFactory;
+    private final PrimaryReads primaryReads;
+    // StatelessSession 용 HQL 도 VIEW 로 select 절을 만들어서 행 매핑과 컬럼 순서를 맞춤
+    private final String scanViewsHql;
+    private final String committedViewsHql;
+
+    public MemberJpaRepository(EntityManager em, MeteredJPAQueryFactory queryFactory, MemberSearchQueryTemplates queryTemplates,
+                               TeamNameResolver teamNameResolver, MemberFullTextIndex fullTextIndex, EntityManagerFactory emf,
+                               PrimaryReads primaryReads) {
         this.em = em;
-        this.queryFactory = new JPAQueryFactory(em);
+        this.queryFactory = queryFactory;
+        this.queryTemplates = queryTemplates;
+        this.teamNameResolver = teamNameResolver;
+        this.fullTextIndex = fullTextIndex;
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+        this.primaryReads = primaryReads;
+        this.scanViewsHql = queryFactory.select(VIEW).from(member).orderBy(member.id.asc()).toString();
+        this.committedViewsHql = queryFactory.select(VIEW).from(member)
+                .where(Expressions.booleanTemplate("{0} in (:ids)", member.id))
+                .toString();
     }
 
     public void save(Member member) {
@@ -45,7 +82,7 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findAllQuerydsl() {
-        return queryFactory
+        return queryFactory.named("member.findAll")
                 .selectFrom(member)
                 .fetch();
     }
@@ -57,72 +94,120 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findByUsernameQuerydsl(String username) {
-        return queryFactory
+        return queryFactory.named("member.findByUsername")
                 .selectFrom(member)
                 .where(member.username.eq(username))
                 .fetch();
     }
 
-    public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
-        BooleanBuilder builder = new BooleanBuilder();
-        builder.and(usernameEq(condition.getUsername()));
-        builder.and(teamNameEq(condition.getTeamName()));
-        builder.and(ageGoe(condition.getAgeGoe()));
-        builder.and(ageLoe(condition.getAgeLoe()));
-
-        return queryFactory
-                .select(
-                        Projections.constructor(
-                                MemberTeamDto.class,
-                                member.id,
-                                member.username,
-                                member.age,
-                                team.id,
-                                team.name
-                        )
-                )
+    // 조회 전용 모델 (엔티티 대신 MemberView)
+    public Optional<MemberView> findViewById(Long id) {
+        return Optional.ofNullable(queryFactory.named("member.findViewById")
+                .select(VIEW)
+                .from(member)
+                .where(member.id.eq(id))
+                .fetchOne());
+    }
+
+    public List<MemberView> findAllViews() {
+        return queryFactory.named("member.findAllViews")
+                .select(VIEW)
                 .from(member)
-                .leftJoin(member.team, team)
-                .where(builder)
                 .fetch();
     }
 
-    public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(
-                        Projections.constructor(
-                                MemberTeamDto.class,
-                                member.id,
-                                member.username,
-                                member.age,
-                                team.id,
-                                team.name
-                        )
-                )
+    public List<MemberView> findViewsByUsername(String username) {
+        return queryFactory.named("member.findViewsByUsername")
+                .select(VIEW)
                 .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+                .where(member.username.eq(username))
                 .fetch();
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+    // 대량 조회: StatelessSession (1차 캐시/스냅샷 없음) + 커서로 한 행씩 넘겨줌
+    // 스프링 트랜잭션과 별개의 커넥션을 사용하므로 커밋된 데이터만 보인다
+    public long scanViews(Consumer<MemberView> consumer) {
+        long count = 0;
+        try (StatelessSession session = sessionFactory.openStatelessSession();
+             ScrollableResults rows = session
+                     .createQuery(scanViewsHql)
+                     .setFetchSize(STREAM_FETCH_SIZE)
+                     .setReadOnly(true)
+                     .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                consumer.accept(VIEW.newInstance(rows.get()));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // scanViews 와 같은 방식으로 id 목록의 회원만 (커밋된 데이터, 없는 id 는 빠짐)
+    public List<MemberView> findCommittedViews(Collection<Long> ids) {
+        List<MemberView> views = new ArrayList<>(ids.size());
+        List<Long> remaining = new ArrayList<>(ids);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (int from = 0; from < remaining.size(); from += STREAM_FETCH_SIZE) {
+                List<Object[]> rows = session
+                        .createQuery(committedViewsHql, Object[].class)
+                        .setParameterList("ids", remaining.subList(from, Math.min(from + STREAM_FETCH_SIZE, remaining.size())))
+                        .setReadOnly(true)
+                        .getResultList();
+                for (Object[] row : rows) {
+                    views.add(VIEW.newInstance(row));
+                }
+            }
+        }
+        return views;
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    // 전문 검색 인덱스는 primary 에만 있으므로 키워드 조건이 있으면 primary 에서 조회
+    @Transactional(readOnly = true)
+    public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
+        if (hasText(condition.getUsernameKeyword()) && fullTextIndex.isAvailable()) {
+            return primaryReads.read(() -> fetchByBuilder(condition));
+        }
+        return fetchByBuilder(condition);
+    }
+
+    private List<MemberTeamDto> fetchByBuilder(MemberSearchCondition condition) {
+        BooleanBuilder builder = new BooleanBuilder();
+        for (Predicate predicate : predicateOf(condition).toArray()) {
+            builder.and(predicate);
+        }
+
+        return queryFactory.named("member.searchByBuilder")
+                .select(memberTeamDto(member, team))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(builder)
+                .fetch();
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    // 조건 모양별로 미리 만들어 둔 JPQL 사용 (querydsl 식 조립 / 직렬화 생략)
+    @Transactional(readOnly = true)
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return queryTemplates.search(condition);
+    }
+
+    // fetch()와 달리 결과 전체를 메모리에 올리지 않고 fetch size 단위로 읽어옴
+    // 트랜잭션 안에서 사용하고 다 쓰면 반드시 close 할 것 (트랜잭션이 없으면 예외)
+    // 키워드 조건이면 호출한 쪽의 트랜잭션이 primary 에서 읽어야 함 (MemberExportService)
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<MemberTeamDto> searchStream(MemberSearchCondition condition) {
+        return queryFactory.named("member.searchStream")
+                .select(memberTeamDto(member, team))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(predicateOf(condition).toArray())
+                .orderBy(member.id.asc())   // 내보내기 결과 순서 고정
+                .setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .stream();
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    // search 와 같은 조건 (회원명 접두사 / 키워드 포함)
+    private MemberSearchPredicate predicateOf(MemberSearchCondition condition) {
+        return MemberSearchPredicate.of(condition, teamNameResolver::resolve, fullTextIndex::matches);
     }
 }
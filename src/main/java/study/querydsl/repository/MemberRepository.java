@@ -1,6 +1,10 @@
 package study.querydsl.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import study.querydsl.dto.MemberView;
 import study.querydsl.entity.Member;
 
 import java.util.List;
@@ -10,4 +14,17 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     // 메소드 이름으로 자동으로 만들어줌
     // select m from Member m where m.username = :username
     List<Member> findByUsername(String username);
+
+    // 조회 전용 모델: 생성자 표현식으로 바로 DTO 생성 (엔티티 X)
+    @Query("select new study.querydsl.dto.MemberView(m.id, m.username, m.age, m.team.id) from Member m where m.username = :username")
+    List<MemberView> findViewsByUsername(@Param("username") String username);
+
+    // team 을 페치 조인으로 함께 조회 (member.getTeam() 접근 시 추가 쿼리 없음)
+    @EntityGraph(attributePaths = "team")
+    @Query("select m from Member m")
+    List<Member> findAllWithTeam();
+
+    @EntityGraph(attributePaths = "team")
+    List<Member> findWithTeamByUsername(String username);
 }
+
@@ -1,78 +1,125 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
-import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
-import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.MemberColumnarIndex;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.cache.MemberSearchResultCache;
+import study.querydsl.cache.TeamNameResolver;
+import study.querydsl.config.PrimaryReads;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberPageOptions;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSlice;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.metrics.MeteredJPAQueryFactory;
 
-import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.dto.MemberProjections.memberTeamDto;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberSearchPredicate.*;
 
+// 조회 전용: flush 모드 MANUAL, 스냅샷 X, 커넥션 read-only (라우팅 DataSource 사용 시 replica)
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
-    private final JPAQueryFactory queryFactory;
+    private final MeteredJPAQueryFactory queryFactory;
+    private final MemberSearchQueryTemplates queryTemplates;
+    private final MemberCountCache countCache;
+    private final TeamNameResolver teamNameResolver;
+    private final MemberSearchResultCache resultCache;
+    private final ParallelCountExecutor countExecutor;
+    private final MemberFullTextIndex fullTextIndex;
+    private final MemberColumnarIndex columnarIndex;
+    private final PrimaryReads primaryReads;
 
-    public MemberRepositoryImpl(EntityManager entityManager){
-        this.queryFactory = new JPAQueryFactory(entityManager);
+    public MemberRepositoryImpl(MeteredJPAQueryFactory queryFactory, MemberSearchQueryTemplates queryTemplates,
+                                MemberCountCache countCache,
+                                TeamNameResolver teamNameResolver, MemberSearchResultCache resultCache,
+                                ParallelCountExecutor countExecutor, MemberFullTextIndex fullTextIndex,
+                                MemberColumnarIndex columnarIndex, PrimaryReads primaryReads){
+        this.queryFactory = queryFactory;
+        this.queryTemplates = queryTemplates;
+        this.countCache = countCache;
+        this.teamNameResolver = teamNameResolver;
+        this.resultCache = resultCache;
+        this.countExecutor = countExecutor;
+        this.fullTextIndex = fullTextIndex;
+        this.columnarIndex = columnarIndex;
+        this.primaryReads = primaryReads;
     }
 
+    // 인메모리 컬럼 인덱스가 최신이면 DB 를 거치지 않음
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(
-                        Projections.constructor(
-                                MemberTeamDto.class,
-                                member.id,
-                                member.username,
-                                member.age,
-                                team.id,
-                                team.name
-                        )
-                )
-                .from(member)
-                .leftJoin(member.team, team)
+        return columnarIndex.search(condition)
+                .orElseGet(() -> resultCache.search(condition, () -> queryTemplates.search(condition)));
+    }
+
+    // 엔티티 조회 + team 페치 조인 (team 이 없는 회원도 포함)
+    @Override
+    public List<Member> searchWithTeam(MemberSearchCondition condition) {
+        return keywordOnPrimary(condition, () -> queryFactory.named("member.searchWithTeam")
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
                 .where(
                         usernameEq(condition.getUsername()),
+                        usernameStartsWith(condition.getUsernamePrefix()),
+                        usernameKeyword(condition.getUsernameKeyword()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
-                .fetch();
+                .fetch());
     }
 
     // deprecated
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> results = queryFactory
-                .select(
-                        Projections.constructor(
-                                MemberTeamDto.class,
-                                member.id,
-                                member.username,
-                                member.age,
-                                team.id,
-                                team.name
-                        )
-                )
+        Optional<Page<MemberTeamDto>> indexed = columnarIndex.page(condition, pageable);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+        return keywordOnPrimary(condition, () -> fetchPageSimple(condition, pageable));
+    }
+
+    private Page<MemberTeamDto> fetchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        QueryResults<MemberTeamDto> results = queryFactory.named("member.searchPageSimple")
+                .select(memberTeamDto(member, team))
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
+                        usernameStartsWith(condition.getUsernamePrefix()),
+                        usernameKeyword(condition.getUsernameKeyword()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .orderBy(member.id.asc())   // 컬럼 인덱스와 같은 순서
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetchResults();
@@ -83,69 +130,195 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> results = queryFactory
-                .select(
-                        Projections.constructor(
-                                MemberTeamDto.class,
-                                member.id,
-                                member.username,
-                                member.age,
-                                team.id,
-                                team.name
-                        )
-                )
+        return searchPageComplex(condition, pageable, new MemberPageOptions());
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable, MemberPageOptions options) {
+        // 인덱스에서는 건수도 바로 나오므로 count 옵션과 상관없이 정확한 페이지
+        Optional<Page<MemberTeamDto>> indexed = columnarIndex.page(condition, pageable);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+        return keywordOnPrimary(condition,
+                () -> resultCache.page(condition, pageable, options, () -> fetchPageComplex(condition, pageable, options)));
+    }
+
+    private Page<MemberTeamDto> fetchPageComplex(MemberSearchCondition condition, Pageable pageable, MemberPageOptions options) {
+        // 본문 쿼리보다 먼저 count 를 다른 스레드에서 시작
+        CompletableFuture<Long> parallelCount = null;
+        long countDeadline = 0;
+        if (options.isParallelCount() && options.getCountMode() == MemberPageOptions.CountMode.EXACT
+                && countExecutor.canRunInParallel()) {
+            countDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(options.getCountTimeoutMillis());
+            parallelCount = countExecutor.submit(() -> countQuery(condition).fetchOne());
+        }
+
+        List<MemberTeamDto> results = options.getPagingStrategy() == MemberPageOptions.PagingStrategy.ID_FIRST
+                ? fetchPageByIds(condition, pageable)
+                : fetchPage(condition, pageable);
+
+        if (parallelCount != null) {
+            Long total = countExecutor.await(parallelCount, countDeadline);
+            if (total == null) {
+                // count 가 늦으면 지금까지 확인된 건수를 하한값으로 (꽉 찬 페이지면 다음 페이지가 있다고 봄)
+                long lowerBound = pageable.getOffset() + results.size() + (results.size() == pageable.getPageSize() ? 1 : 0);
+                return new ApproximatePage<>(results, pageable, lowerBound);
+            }
+            return new PageImpl<>(results, pageable, total);
+        }
+
+        JPAQuery<Long> countQuery = countQuery(condition);
+        switch (options.getCountMode()) {
+            case CACHED:
+                return PageableExecutionUtils.getPage(results, pageable,
+                        () -> countCache.get(condition, countQuery::fetchOne));
+            case ESTIMATED:
+                return estimatedPage(results, condition, pageable, options.getCountLimit());
+            default:
+                // 상황에 따라 countQuery를 실행하지 않고도 구해줌 (최적화)
+                return PageableExecutionUtils.getPage(results, pageable, countQuery::fetchOne);
+        }
+    }
+
+    // count 에는 team 컬럼이 필요 없고 조건도 member 컬럼만 쓰므로(팀명 -> member.team.id) team 조인 없음
+    private JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+        return queryFactory.named("member.searchPage.count")
+                .select(member.count())
                 .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+                .where(predicateOf(condition).toArray());
+    }
+
+    // 전체를 세지 않고 countLimit + 1 건을 넘는지만 확인
+    private Page<MemberTeamDto> estimatedPage(List<MemberTeamDto> content, MemberSearchCondition condition,
+                                              Pageable pageable, int countLimit) {
+        AtomicBoolean capped = new AtomicBoolean();
+        Page<MemberTeamDto> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+            long counted = queryFactory.named("member.searchPage.estimatedCount")
+                    .selectOne()
+                    .from(member)
+                    .where(predicateOf(condition).toArray())
+                    .limit(countLimit + 1L)
+                    .fetch()
+                    .size();
+            if (counted <= countLimit) {
+                return counted;
+            }
+            capped.set(true);
+            // 상한 이후 페이지를 보고 있어도 다음 페이지가 있다고 판단되도록
+            return Math.max(countLimit + 1L, pageable.getOffset() + content.size() + 1);
+        });
+        return capped.get() ? new ApproximatePage<>(content, pageable, page.getTotalElements()) : page;
+    }
+
+    private List<MemberTeamDto> fetchPage(MemberSearchCondition condition, Pageable pageable) {
+        return queryTemplates.fetch(condition, pageable.getOffset(), pageable.getPageSize());
+    }
+
+    // 1단계: 좁은 id 컬럼만 offset/limit (버려지는 행이 넓은 조인 결과가 아님)
+    // 2단계: 해당 페이지의 id로만 조인 + 프로젝션
+    private List<MemberTeamDto> fetchPageByIds(MemberSearchCondition condition, Pageable pageable) {
+        List<Long> ids = queryFactory.named("member.searchPage.ids")
+                .select(member.id)
+                .from(member)
+                .where(predicateOf(condition).toArray())
+                .orderBy(member.id.asc())
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-//        Long count = queryFactory
-//                .select(member.count())
-//                .from(member)
-//                .leftJoin(member.team, team)
-//                .where(
-//                        usernameEq(condition.getUsername()),
-//                        teamNameEq(condition.getTeamName()),
-//                        ageGoe(condition.getAgeGoe()),
-//                        ageLoe(condition.getAgeLoe())
-//                )
-//                .fetchOne();
-//        return new PageImpl<>(results, pageable, count);
-
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
+        List<MemberTeamDto> rows = queryFactory.named("member.searchPage.rowsByIds")
+                .select(memberTeamDto(member, team))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.id.in(ids))
+                .fetch();
+
+        // in 절 결과는 순서가 보장되지 않으므로 1단계의 id 순서로 재정렬
+        // 두 단계는 별도 statement 라 그 사이에 삭제된 회원은 빠짐 (null 행을 넣지 않음)
+        Map<Long, MemberTeamDto> rowById = rows.stream()
+                .collect(Collectors.toMap(MemberTeamDto::getMemberId, Function.identity()));
+        return ids.stream()
+                .map(rowById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // offset 대신 마지막으로 읽은 키 이후부터 조회 -> 페이지 깊이와 상관없이 인덱스 seek 한 번
+    @Override
+    public MemberSlice searchSlice(MemberSearchCondition condition, MemberCursor cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        return keywordOnPrimary(condition, () -> fetchSlice(condition, cursor, size));
+    }
+
+    private MemberSlice fetchSlice(MemberSearchCondition condition, MemberCursor cursor, int size) {
+        List<MemberTeamDto> results = queryFactory.named("member.searchSlice")
+                .select(memberTeamDto(member, team))
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
+                        usernameStartsWith(condition.getUsernamePrefix()),
+                        usernameKeyword(condition.getUsernameKeyword()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
-        // 상황에 따라 countQuery를 실행하지 않고도 구해줌 (최적화)
-        return PageableExecutionUtils.getPage(results, pageable, countQuery::fetchOne);
+                        ageLoe(condition.getAgeLoe()),
+                        afterCursor(cursor)
+                )
+                .orderBy(cursorOrder(cursor.getSortKey()))
+                .limit(size + 1)    // 한 건 더 읽어서 다음 페이지 존재 여부 확인
+                .fetch();
+
+        boolean hasNext = results.size() > size;
+        List<MemberTeamDto> content = hasNext ? new ArrayList<>(results.subList(0, size)) : results;
+        String nextCursor = hasNext
+                ? MemberCursor.after(content.get(content.size() - 1), cursor.getSortKey()).encode()
+                : null;
+        return new MemberSlice(content, hasNext, nextCursor);
+    }
+
+    private BooleanExpression afterCursor(MemberCursor cursor) {
+        if (cursor.isFirst()) {
+            return null;
+        }
+        if (cursor.getSortKey() == MemberCursor.SortKey.AGE) {
+            // (age, id) > (:age, :id)
+            return member.age.gt(cursor.getAge())
+                    .or(member.age.eq(cursor.getAge()).and(member.id.gt(cursor.getMemberId())));
+        }
+        return member.id.gt(cursor.getMemberId());
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+    private OrderSpecifier<?>[] cursorOrder(MemberCursor.SortKey sortKey) {
+        if (sortKey == MemberCursor.SortKey.AGE) {
+            return new OrderSpecifier<?>[]{member.age.asc(), member.id.asc()};
+        }
+        return new OrderSpecifier<?>[]{member.id.asc()};
     }
 
+    // 팀명 -> 팀 id (캐시) 로 바꿔서 team 조인 없이 member.team_id 로 필터
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return hasText(teamName) ? teamIdIn(teamNameResolver.resolve(teamName)) : null;
+    }
+
+    // 전문 검색 인덱스 서브쿼리로 필터 (like '%x%' 스캔 대신)
+    private BooleanExpression usernameKeyword(String keyword) {
+        return hasText(keyword) ? fullTextIndex.matches(keyword.trim()) : null;
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    private MemberSearchPredicate predicateOf(MemberSearchCondition condition) {
+        return MemberSearchPredicate.of(condition, teamNameResolver::resolve, fullTextIndex::matches);
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    // 전문 검색 인덱스는 primary 에만 있으므로 키워드 조건이 있으면 primary 에서 조회
+    private <T> T keywordOnPrimary(MemberSearchCondition condition, Supplier<T> query) {
+        return hasText(condition.getUsernameKeyword()) && fullTextIndex.isAvailable()
+                ? primaryReads.read(query::get)
+                : query.get();
     }
 }
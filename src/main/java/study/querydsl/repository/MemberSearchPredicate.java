@@ -0,0 +1,91 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * MemberSearchCondition 에서 실제로 값이 있는 조건만 모은 where 절.
+ * 조건은 member 컬럼만 사용하므로 (팀명 -> member.team.id) team 조인 없이 count / id 조회에 쓸 수 있다.
+ */
+public class MemberSearchPredicate {
+
+    private final List<BooleanExpression> predicates;
+
+    private MemberSearchPredicate(List<BooleanExpression> predicates) {
+        this.predicates = predicates;
+    }
+
+    // 팀명은 teamIdsByName 으로 팀 id 로 바꿔서 member.team.id 로 비교 (team 조인 불필요)
+    // 회원명 키워드 조건은 usernameKeyword(전문 검색 서브쿼리, 또는 like)로 만듦
+    public static MemberSearchPredicate of(MemberSearchCondition condition, Function<String, List<Long>> teamIdsByName,
+                                           Function<String, BooleanExpression> usernameKeyword) {
+        List<BooleanExpression> predicates = Stream.of(
+                        usernameEq(condition.getUsername()),
+                        usernameStartsWith(condition.getUsernamePrefix()),
+                        hasText(condition.getUsernameKeyword()) ? usernameKeyword.apply(condition.getUsernameKeyword().trim()) : null,
+                        hasText(condition.getTeamName()) ? teamIdIn(teamIdsByName.apply(condition.getTeamName())) : null,
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new MemberSearchPredicate(predicates);
+    }
+
+    /**
+     * 같은 조건을 값 대신 이름 있는 파라미터 자리(:username, :teamIds ...)로 만든 where 절.
+     * 어떤 조건이 들어가는지는 condition 의 값 유무로만 정해지므로 조건 모양별로 JPQL 이 하나씩 나온다.
+     * (MemberSearchQueryTemplates 가 모양별로 한 번 직렬화해 두고 값만 바인딩)
+     */
+    static MemberSearchPredicate parameterized(MemberSearchCondition condition) {
+        List<BooleanExpression> predicates = Stream.of(
+                        hasText(condition.getUsername()) ? member.username.eq(Expressions.stringTemplate(":username")) : null,
+                        hasText(condition.getUsernamePrefix()) ? member.username.like(Expressions.stringTemplate(":usernamePrefix"), '!') : null,
+                        hasText(condition.getUsernameKeyword()) ? Expressions.booleanTemplate("function('" + MemberFullTextIndex.MATCH_FUNCTION + "', {0}, :usernameKeyword) = true", member.id) : null,
+                        hasText(condition.getTeamName()) ? Expressions.booleanOperation(Ops.IN, member.team.id, Expressions.template(List.class, ":teamIds")) : null,
+                        condition.getAgeGoe() != null ? member.age.goe(Expressions.numberTemplate(Integer.class, ":ageGoe")) : null,
+                        condition.getAgeLoe() != null ? member.age.loe(Expressions.numberTemplate(Integer.class, ":ageLoe")) : null
+                )
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new MemberSearchPredicate(predicates);
+    }
+
+    public Predicate[] toArray() {
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    public static BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    // like 'prefix%' escape '!' -> username 인덱스 범위 검색
+    public static BooleanExpression usernameStartsWith(String usernamePrefix) {
+        return hasText(usernamePrefix) ? member.username.startsWith(usernamePrefix) : null;
+    }
+
+    public static BooleanExpression teamIdIn(List<Long> teamIds) {
+        // 해당 이름의 팀이 없으면 어떤 회원도 매칭되지 않아야 함
+        return teamIds.isEmpty() ? Expressions.FALSE.isTrue() : member.team.id.in(teamIds);
+    }
+
+    public static BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    public static BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
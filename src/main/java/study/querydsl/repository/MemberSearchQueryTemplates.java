@@ -0,0 +1,187 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.stereotype.Component;
+import study.querydsl.cache.TeamNameResolver;
+import study.querydsl.config.PrimaryReads;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.metrics.MeteredJPAQueryFactory;
+import study.querydsl.metrics.QueryMetrics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.dto.MemberProjections.memberTeamDto;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 검색 조건 모양(6개 필드 중 어떤 값이 있는지 = 64가지)별로 JPQL 문자열을 미리 만들어 두고 재사용.
+ * 매 요청마다 querydsl 식을 조립하고 JPQL 로 직렬화하는 과정이 없고,
+ * 같은 문자열이 반복되므로 하이버네이트 쿼리 플랜 캐시에도 바로 걸린다.
+ * JPQL 은 MemberSearchPredicate.parameterized 를 모양별로 한 번 직렬화한 것 (조건을 따로 적지 않음)
+ * 결과는 회원 id 순서 (인메모리 컬럼 인덱스와 같은 순서라 어느 쪽으로 조회해도 같은 페이지)
+ * 전문 검색을 쓸 수 없으면(성능 저하 모드, MemberFullTextIndex 참고) 키워드를 like 조건으로 바꿔 querydsl 쿼리를 바로 만든다.
+ * 전문 검색 인덱스는 primary 에만 있으므로 전문 검색 조건은 primary 에서 조회 (PrimaryReads)
+ */
+@Component
+public class MemberSearchQueryTemplates {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    private static final int USERNAME_PREFIX = 1 << 4;
+    private static final int USERNAME_KEYWORD = 1 << 5;
+    // select 절과 행 매핑을 querydsl 쿼리와 같은 프로젝션으로 (컬럼 순서가 한 곳에서만 정해짐)
+    private static final FactoryExpression<MemberTeamDto> ROW = memberTeamDto(member, team);
+
+    private final EntityManager em;
+    private final MeteredJPAQueryFactory queryFactory;
+    private final QueryMetrics queryMetrics;
+    private final TeamNameResolver teamNameResolver;
+    private final MemberFullTextIndex fullTextIndex;
+    private final PrimaryReads primaryReads;
+    private final String[] jpqlByShape = new String[64];
+    private final String[] nameByShape = new String[64];
+
+    public MemberSearchQueryTemplates(EntityManager em, MeteredJPAQueryFactory queryFactory, QueryMetrics queryMetrics,
+                                      TeamNameResolver teamNameResolver, MemberFullTextIndex fullTextIndex,
+                                      PrimaryReads primaryReads) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.queryMetrics = queryMetrics;
+        this.teamNameResolver = teamNameResolver;
+        this.fullTextIndex = fullTextIndex;
+        this.primaryReads = primaryReads;
+        for (int shape = 0; shape < jpqlByShape.length; shape++) {
+            jpqlByShape[shape] = queryFactory
+                    .select(ROW)
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(MemberSearchPredicate.parameterized(conditionOf(shape)).toArray())
+                    .orderBy(member.id.asc())
+                    .toString();
+            nameByShape[shape] = nameOf(shape);
+        }
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return fetch(condition, 0, -1);
+    }
+
+    // limit < 0 이면 전체 조회
+    public List<MemberTeamDto> fetch(MemberSearchCondition condition, long offset, int limit) {
+        int shape = shapeOf(condition);
+        if ((shape & USERNAME_KEYWORD) != 0 && fullTextIndex.isAvailable()) {
+            return primaryReads.read(() -> fetch(shape, condition, offset, limit));
+        }
+        return fetch(shape, condition, offset, limit);
+    }
+
+    private List<MemberTeamDto> fetch(int shape, MemberSearchCondition condition, long offset, int limit) {
+        String jpql = jpqlByShape[shape];
+        String name = nameByShape[shape];
+
+        List<Long> teamIds = null;
+        if ((shape & TEAM_NAME) != 0) {
+            teamIds = teamNameResolver.resolve(condition.getTeamName());
+            if (teamIds.isEmpty()) {
+                return Collections.emptyList();    // 없는 팀명
+            }
+        }
+        if ((shape & USERNAME_KEYWORD) != 0 && !fullTextIndex.isAvailable()) {
+            return fetchContaining(name, condition, offset, limit);
+        }
+
+        TypedQuery<Object[]> query = em.createQuery(jpql, Object[].class);
+        if ((shape & USERNAME) != 0) query.setParameter("username", condition.getUsername());
+        if ((shape & TEAM_NAME) != 0) query.setParameter("teamIds", teamIds);
+        if ((shape & AGE_GOE) != 0) query.setParameter("ageGoe", condition.getAgeGoe());
+        if ((shape & AGE_LOE) != 0) query.setParameter("ageLoe", condition.getAgeLoe());
+        if ((shape & USERNAME_PREFIX) != 0) query.setParameter("usernamePrefix", MemberFullTextIndex.escapeLike(condition.getUsernamePrefix()) + "%");
+        if ((shape & USERNAME_KEYWORD) != 0) query.setParameter("usernameKeyword", condition.getUsernameKeyword().trim());
+        if (limit >= 0) {
+            // querydsl(QueryModifiers)과 같이 int 범위를 넘는 offset 은 Integer.MAX_VALUE 로 (예외 대신 빈 페이지)
+            query.setFirstResult((int) Math.min(offset, Integer.MAX_VALUE));
+            query.setMaxResults(limit);
+        }
+
+        // query 태그는 querydsl 쿼리와 같은 짧은 이름 (모양 수만큼만 생김, ex. member.search.teamName+ageGoe)
+        long start = System.nanoTime();
+        List<MemberTeamDto> results = null;
+        try {
+            List<Object[]> rows = query.getResultList();
+            results = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                results.add(ROW.newInstance(row));
+            }
+            return results;
+        } finally {
+            queryMetrics.record(name, "fetch", results != null ? QueryMetrics.SUCCESS : QueryMetrics.ERROR,
+                    System.nanoTime() - start, results != null ? results.size() : 0);
+        }
+    }
+
+    // 성능 저하 모드: 전문 검색을 쓸 수 없으면 키워드를 username like 조건으로
+    private List<MemberTeamDto> fetchContaining(String name, MemberSearchCondition condition, long offset, int limit) {
+        JPAQuery<MemberTeamDto> query = queryFactory.named(name)
+                .select(ROW)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(MemberSearchPredicate.of(condition, teamNameResolver::resolve, MemberFullTextIndex::usernameContains).toArray())
+                .orderBy(member.id.asc());
+        if (limit >= 0) {
+            query.offset(offset).limit(limit);
+        }
+        return query.fetch();
+    }
+
+    // 해당 조건 모양에 쓰이는 JPQL (테스트용)
+    String jpqlOf(MemberSearchCondition condition) {
+        return jpqlByShape[shapeOf(condition)];
+    }
+
+    static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUsername())) shape |= USERNAME;
+        if (hasText(condition.getTeamName())) shape |= TEAM_NAME;
+        if (condition.getAgeGoe() != null) shape |= AGE_GOE;
+        if (condition.getAgeLoe() != null) shape |= AGE_LOE;
+        if (hasText(condition.getUsernamePrefix())) shape |= USERNAME_PREFIX;
+        if (hasText(condition.getUsernameKeyword())) shape |= USERNAME_KEYWORD;
+        return shape;
+    }
+
+    // ex) member.search.teamName+ageGoe, 조건이 없으면 member.search.all
+    private static String nameOf(int shape) {
+        StringJoiner fields = new StringJoiner("+");
+        if ((shape & USERNAME) != 0) fields.add("username");
+        if ((shape & TEAM_NAME) != 0) fields.add("teamName");
+        if ((shape & AGE_GOE) != 0) fields.add("ageGoe");
+        if ((shape & AGE_LOE) != 0) fields.add("ageLoe");
+        if ((shape & USERNAME_PREFIX) != 0) fields.add("usernamePrefix");
+        if ((shape & USERNAME_KEYWORD) != 0) fields.add("usernameKeyword");
+        return "member.search." + (shape == 0 ? "all" : fields.toString());
+    }
+
+    // 해당 모양의 필드에만 값이 있는 조건 (값 자체는 쓰이지 않음)
+    private static MemberSearchCondition conditionOf(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition(
+                (shape & USERNAME) != 0 ? "username" : null,
+                (shape & TEAM_NAME) != 0 ? "teamName" : null,
+                (shape & AGE_GOE) != 0 ? 0 : null,
+                (shape & AGE_LOE) != 0 ? 0 : null
+        );
+        condition.setUsernamePrefix((shape & USERNAME_PREFIX) != 0 ? "usernamePrefix" : null);
+        condition.setUsernameKeyword((shape & USERNAME_KEYWORD) != 0 ? "usernameKeyword" : null);
+        return condition;
+    }
+}
@@ -0,0 +1,93 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.PrimaryReads;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 페이징 count 쿼리를 별도 스레드(= 별도 EntityManager/커넥션, 읽기 전용 트랜잭션)에서 실행해서
+ * 본문 쿼리와 동시에 돌린다. 풀이 가득 차면 호출 스레드에서 그냥 실행 (순차 실행과 같음).
+ */
+@Slf4j
+@Component
+public class ParallelCountExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate primaryReadTransaction;
+    private final MeterRegistry meterRegistry;
+
+    public ParallelCountExecutor(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                 @Value("${querydsl.member.count-pool-size:8}") int poolSize) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.primaryReadTransaction = new TransactionTemplate(transactionManager);
+        this.primaryReadTransaction.setReadOnly(true);
+        this.primaryReadTransaction.setName(PrimaryReads.TRANSACTION_NAME);
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(poolSize * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "member-count-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // 다른 커넥션에서는 아직 커밋되지 않은 쓰기가 보이지 않으므로 쓰기 트랜잭션 안에서는 병렬 실행하지 않음
+    public boolean canRunInParallel() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    // 호출한 쪽이 primary 에서 읽고 있으면(캐시 재적재, 전문 검색) count 도 primary 에서
+    public CompletableFuture<Long> submit(Supplier<Long> count) {
+        TransactionTemplate transaction = PrimaryReads.isActive() ? primaryReadTransaction : readOnlyTransaction;
+        return CompletableFuture.supplyAsync(() -> transaction.execute(status -> count.get()), executor);
+    }
+
+    /**
+     * deadlineNanos(System.nanoTime 기준)까지 기다리고, 그때까지 끝나지 않으면 null.
+     * 늦은 count 는 백그라운드에서 끝까지 실행되고 결과만 버린다.
+     */
+    public Long await(CompletableFuture<Long> count, long deadlineNanos) {
+        try {
+            return count.get(Math.max(deadlineNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            meterRegistry.counter("querydsl.member.count.timeout").increment();
+            log.debug("count query did not finish in time, returning estimated total");
+            return null;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause()
+                    : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,22 +1,45 @@
 package study.querydsl.repository;
 
-import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.springframework.stereotype.Repository;
 import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Repository
 public class TeamJpaRepository {
     private final EntityManager em;
-    private final JPAQueryFactory queryFactory;
+    private final SessionFactory sessionFactory;
 
-    public TeamJpaRepository(EntityManager em) {
+    public TeamJpaRepository(EntityManager em, EntityManagerFactory emf) {
         this.em = em;
-        this.queryFactory = new JPAQueryFactory(em);
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
     }
 
     public void save(Team team) {
         em.persist(team);
     }
+
+    // 팀 id -> 이름 (커밋된 데이터, 없는 id 는 빠짐)
+    // 스프링 트랜잭션과 별개의 StatelessSession 이라 트랜잭션이 끝나는 중(afterCompletion)에도 사용할 수 있음
+    public Map<Long, String> findCommittedNames(Collection<Long> ids) {
+        Map<Long, String> names = new HashMap<>();
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            List<Object[]> rows = session
+                    .createQuery("select t.id, t.name from Team t where t.id in :ids", Object[].class)
+                    .setParameterList("ids", ids)
+                    .setReadOnly(true)
+                    .getResultList();
+            for (Object[] row : rows) {
+                names.put((Long) row[0], (String) row[1]);
+            }
+        }
+        return names;
+    }
 }
@@ -3,5 +3,5 @@ package study.querydsl.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import study.querydsl.entity.Team;
 
-public interface TeamRepository extends JpaRepository<Team, Long> {
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
 }
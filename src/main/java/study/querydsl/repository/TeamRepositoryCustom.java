@@ -0,0 +1,14 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.TeamAgeCount;
+import study.querydsl.dto.TeamMemberStats;
+
+import java.util.List;
+
+public interface TeamRepositoryCustom {
+    List<TeamMemberStats> findTeamStats();
+    Page<TeamMemberStats> findTeamStats(Pageable pageable);
+    List<TeamAgeCount> findTeamAgeCounts();
+}
@@ -0,0 +1,80 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamAgeCount;
+import study.querydsl.dto.TeamMemberStats;
+import study.querydsl.metrics.MeteredJPAQueryFactory;
+
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+// members 컬렉션을 올리지 않고 group by 한 번으로 팀별 회원 수 / 나이 집계
+@Transactional(readOnly = true)
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final MeteredJPAQueryFactory queryFactory;
+
+    public TeamRepositoryImpl(MeteredJPAQueryFactory queryFactory) {
+        this.queryFactory = queryFactory;
+    }
+
+    @Override
+    public List<TeamMemberStats> findTeamStats() {
+        return statsQuery().fetch();
+    }
+
+    // 팀 단위로 group by 하므로 페치 조인과 달리 limit/offset 이 그대로 팀 기준으로 적용됨
+    @Override
+    public Page<TeamMemberStats> findTeamStats(Pageable pageable) {
+        List<TeamMemberStats> content = statsQuery()
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        JPAQuery<Long> countQuery = queryFactory.named("team.stats.count")
+                .select(team.count())
+                .from(team);
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    // 나이별 분포까지 있어야 회원이 빠질 때 min/max 를 다시 계산할 수 있음 (TeamStatsStore 재계산용)
+    @Override
+    public List<TeamAgeCount> findTeamAgeCounts() {
+        return queryFactory.named("team.ageCounts")
+                .select(Projections.constructor(TeamAgeCount.class,
+                        team.id,
+                        team.name,
+                        member.age,
+                        member.id.count()))
+                .from(team)
+                .leftJoin(team.members, member)
+                .groupBy(team.id, team.name, member.age)
+                .fetch();
+    }
+
+    private JPAQuery<TeamMemberStats> statsQuery() {
+        return queryFactory.named("team.stats")
+                .select(Projections.constructor(TeamMemberStats.class,
+                        team.id,
+                        team.name,
+                        member.id.count(),
+                        // sum(integer) 결과는 Long (member.age.sum() 은 Integer 타입이라 생성자를 못 찾음)
+                        Expressions.numberTemplate(Long.class, "sum({0})", member.age),
+                        member.age.min(),
+                        member.age.max(),
+                        member.age.avg()))
+                .from(team)
+                .leftJoin(team.members, member)
+                .groupBy(team.id, team.name)
+                .orderBy(team.name.asc(), team.id.asc());
+    }
+}
@@ -0,0 +1,139 @@
+package study.querydsl.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import study.querydsl.dto.BulkLoadResult;
+import study.querydsl.dto.MemberRow;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeListener;
+import study.querydsl.event.MemberBulkChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 회원 대량 적재.
+ * - id 는 pooled 시퀀스(allocationSize)로 할당 -> 행마다 시퀀스 조회 X
+ * - batchSize 건마다 flush(JDBC batch insert) + clear 해서 영속성 컨텍스트가 커지지 않게 함
+ *   (바깥 트랜잭션에 참여한 경우에는 호출한 쪽의 영속 엔티티가 준영속이 되지 않도록 이 배치에서 만든 엔티티만 detach)
+ * - JDBC 배치 크기는 이 세션에만 설정 (전역 hibernate.jdbc.batch_size 는 일반 요청의 flush 에 영향을 주므로 쓰지 않음)
+ * - 팀은 이름 -> id 맵으로 찾아서 프록시 참조만 사용 (team.members 를 건드리지 않고 FK 만 설정 -> 프록시 초기화 X)
+ * - 행마다 변경 이벤트/팀 통계 증감분을 만들지 않고 끝에 한 번만 알림 (행마다 트랜잭션 동기화 객체나 증감분이 쌓이지 않도록)
+ */
+@Slf4j
+@Service
+public class MemberBulkLoader {
+
+    private final EntityManager em;
+    private final ApplicationEventPublisher publisher;
+    private final int batchSize;
+
+    public MemberBulkLoader(EntityManager em, ApplicationEventPublisher publisher,
+                            @Value("${querydsl.bulk.batch-size:1000}") int batchSize) {
+        this.em = em;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public BulkLoadResult load(Stream<MemberRow> rows) {
+        long started = System.nanoTime();
+        boolean ownsTransaction = TransactionAspectSupport.currentTransactionStatus().isNewTransaction();
+        // 세션 설정이라 호출자 트랜잭션에 참여한 경우에도 남지 않도록 끝나면 되돌림
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        try {
+            return load(rows, ownsTransaction, started);
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+    }
+
+    private BulkLoadResult load(Stream<MemberRow> rows, boolean ownsTransaction, long started) {
+        Map<String, Long> teamIds = loadTeamIds();
+        Map<Long, Team> teamRefs = new HashMap<>();    // 현재 배치에서 사용 중인 팀 (배치마다 비움)
+        List<Object> persisted = new ArrayList<>();    // 현재 배치에서 persist 한 회원/팀
+        int teamsCreated = 0;
+        long count = 0;
+
+        try (EntityChangeListener.Suppression ignored = EntityChangeListener.suppress()) {
+            Iterator<MemberRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                MemberRow row = iterator.next();
+
+                Team team = null;
+                if (row.getTeamName() != null) {
+                    Long teamId = teamIds.get(row.getTeamName());
+                    if (teamId == null) {
+                        team = new Team(row.getTeamName());
+                        em.persist(team);
+                        persisted.add(team);
+                        teamIds.put(team.getName(), team.getId());
+                        teamRefs.put(team.getId(), team);
+                        teamsCreated++;
+                    } else {
+                        team = teamRefs.computeIfAbsent(teamId, id -> em.getReference(Team.class, id));
+                    }
+                }
+                Member member = new Member(row.getUsername(), row.getAge());
+                member.setTeam(team);
+                em.persist(member);
+                persisted.add(member);
+
+                if (++count % batchSize == 0) {
+                    flushBatch(persisted, ownsTransaction);
+                    teamRefs.clear();
+                }
+            }
+            flushBatch(persisted, ownsTransaction);
+        }
+
+        // 행 단위 이벤트 대신 한 번만 (캐시 무효화 등)
+        if (teamsCreated > 0) {
+            publisher.publishEvent(new TeamChangedEvent(null));
+        }
+        if (count > 0) {
+            publisher.publishEvent(new MemberBulkChangedEvent(List.of()));
+        }
+
+        BulkLoadResult result = new BulkLoadResult(count, teamsCreated, Duration.ofNanos(System.nanoTime() - started));
+        log.info("bulk loaded {} members ({} new teams) in {} ms, {} rows/sec",
+                result.getRows(), result.getTeamsCreated(), result.getElapsed().toMillis(),
+                String.format("%.0f", result.getRowsPerSecond()));
+        return result;
+    }
+
+    // 트랜잭션을 소유하면 통째로 clear, 호출한 쪽 트랜잭션이면 이 배치에서 만든 엔티티만 detach (호출한 쪽 엔티티는 그대로 영속)
+    // 어느 쪽이든 다음 flush 는 새 배치만 dirty check
+    private void flushBatch(List<Object> persisted, boolean ownsTransaction) {
+        em.flush();
+        if (ownsTransaction) {
+            em.clear();
+        } else {
+            persisted.forEach(em::detach);
+        }
+        persisted.clear();
+    }
+
+    private Map<String, Long> loadTeamIds() {
+        Map<String, Long> teamIds = new HashMap<>();
+        for (Object[] row : em.createQuery("select t.name, t.id from Team t", Object[].class).getResultList()) {
+            teamIds.putIfAbsent((String) row[0], (Long) row[1]);
+        }
+        return teamIds;
+    }
+}
@@ -0,0 +1,97 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import study.querydsl.config.PrimaryReads;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberFullTextIndex;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 검색 결과 전체를 한 줄씩 바로 써 내려가는 내보내기.
+ * 결과를 List 로 모으지 않으므로 건수와 상관없이 메모리 사용량이 일정하다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final EntityManager em;
+    private final ObjectMapper objectMapper;
+    private final MemberFullTextIndex fullTextIndex;
+    private final PrimaryReads primaryReads;
+
+    // 스트림은 커넥션을 잡고 있으므로 트랜잭션 안에서 끝까지 읽고 닫아야 함
+    // 바깥 트랜잭션에 참여한 경우에는 호출한 쪽의 영속 엔티티가 준영속이 되지 않도록 clear 하지 않음
+    @Transactional(readOnly = true)
+    public long export(MemberSearchCondition condition, Format format, Writer writer) throws IOException {
+        boolean ownsTransaction = TransactionAspectSupport.currentTransactionStatus().isNewTransaction();
+        // 전문 검색 인덱스는 primary 에만 있으므로 키워드 조건이면 primary 에서 읽음
+        if (hasText(condition.getUsernameKeyword()) && fullTextIndex.isAvailable()) {
+            return primaryReads.read(() -> write(condition, format, writer, ownsTransaction));
+        }
+        return write(condition, format, writer, ownsTransaction);
+    }
+
+    private long write(MemberSearchCondition condition, Format format, Writer writer, boolean ownsTransaction) throws IOException {
+        if (format == Format.CSV) {
+            writer.write("memberId,username,age,teamId,teamName\n");
+        }
+
+        long count = 0;
+        try (Stream<MemberTeamDto> rows = memberJpaRepository.searchStream(condition)) {
+            Iterator<MemberTeamDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                MemberTeamDto row = iterator.next();
+                writer.write(format == Format.CSV ? toCsv(row) : objectMapper.writeValueAsString(row));
+                writer.write('\n');
+
+                if (++count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                    if (ownsTransaction) {
+                        em.clear();
+                    }
+                }
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private String toCsv(MemberTeamDto row) {
+        return String.join(",",
+                String.valueOf(row.getMemberId()),
+                csvField(row.getUsername()),
+                String.valueOf(row.getAge()),
+                row.getTeamId() != null ? String.valueOf(row.getTeamId()) : "",
+                csvField(row.getTeamName()));
+    }
+
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
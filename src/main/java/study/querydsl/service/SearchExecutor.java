@@ -0,0 +1,121 @@
+package study.querydsl.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import study.querydsl.metrics.NPlusOneDetector;
+import study.querydsl.metrics.RequestStatementCounter;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 회원 검색 실행기 (querydsl.search.execution-mode=ASYNC 일 때만 등록, AsyncMemberSearchController 가 사용).
+ * 전용 executor 에서 실행하고 CompletableFuture 로 응답 -> 느린 DB 를 기다리는 동안 요청 스레드를 붙잡지 않음.
+ * 가상 스레드를 지원하는 JDK 면 가상 스레드, 아니면 고정 크기 풀
+ * (BLOCKING 모드는 MemberSearchController 가 요청 스레드에서 바로 조회, 동시 실행 수는 서블릿 컨테이너 스레드 수가 제한)
+ *
+ * 엔드포인트별 세마포어(bulkhead)로 동시 실행 수를 제한하고, 한도를 넘으면 대기열에 쌓지 않고 SearchRejectedException 으로 바로 거절한다.
+ * 검색 하나가 커넥션을 하나 이상 잡으므로 한도(max-concurrent)의 기본값은 커넥션 풀 크기(spring.datasource.hikari.maximum-pool-size, 기본 10).
+ * 풀보다 크게 잡으면 넘친 검색은 거절되지 않고 커넥션을 기다리다(connectionTimeout) 실패하므로 bulkhead 가 의미 없어진다.
+ * 한도는 엔드포인트마다 따로라 동시에 풀을 두고 경쟁하는 검색은 최대 엔드포인트 수(v1~v3) x 한도.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "querydsl.search.execution-mode", havingValue = "ASYNC")
+public class SearchExecutor {
+
+    private final int maxConcurrent;
+    private final ExecutorService executor;
+    private final NPlusOneDetector nPlusOneDetector;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+
+    public SearchExecutor(@Value("${querydsl.search.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+                          @Value("${querydsl.search.pool-size:32}") int poolSize,
+                          NPlusOneDetector nPlusOneDetector,
+                          MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.executor = newExecutor(poolSize);
+        this.nPlusOneDetector = nPlusOneDetector;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> CompletableFuture<T> submit(String endpoint, Supplier<T> search) {
+        Semaphore bulkhead = bulkheads.computeIfAbsent(endpoint, e -> new Semaphore(maxConcurrent));
+        if (!bulkhead.tryAcquire()) {
+            meterRegistry.counter("querydsl.search.rejected", "endpoint", endpoint).increment();
+            throw new SearchRejectedException(endpoint, maxConcurrent);
+        }
+
+        long[] counter = RequestStatementCounter.capture();
+        try {
+            return CompletableFuture.supplyAsync(() -> runDetached(endpoint, counter, search), executor)
+                    .whenComplete((result, e) -> bulkhead.release());
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            throw e;
+        }
+    }
+
+    // 요청 스레드의 statement 카운터를 이어받고, N+1 검사는 작업 단위로 (threshold / fail-on-detection 은 요청과 같음)
+    private <T> T runDetached(String endpoint, long[] counter, Supplier<T> search) {
+        RequestStatementCounter.attach(counter);
+        try {
+            nPlusOneDetector.begin();
+            T result;
+            try {
+                result = search.get();
+            } catch (RuntimeException e) {
+                nPlusOneDetector.end();
+                throw e;
+            }
+            nPlusOneDetector.endAndVerify("async search " + endpoint);
+            return result;
+        } finally {
+            RequestStatementCounter.detach();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newExecutor(int poolSize) {
+        try {
+            // JDK 21+ (빌드 대상은 17 이므로 리플렉션으로 확인)
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            log.info("member search executor: virtual threads");
+            return virtual;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.info("member search executor: {} platform threads", poolSize);
+        }
+
+        AtomicInteger sequence = new AtomicInteger();
+        // 들어올 수 있는 작업 수는 bulkhead 가 제한하므로 큐가 무한히 쌓이지 않음
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "member-search-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
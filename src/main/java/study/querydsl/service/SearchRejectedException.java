@@ -0,0 +1,11 @@
+package study.querydsl.service;
+
+/**
+ * 엔드포인트별 동시 실행 한도를 넘어서 검색을 받지 않음 (-> 503)
+ */
+public class SearchRejectedException extends RuntimeException {
+
+    public SearchRejectedException(String endpoint, int maxConcurrent) {
+        super("too many concurrent searches on " + endpoint + " (max " + maxConcurrent + ")");
+    }
+}
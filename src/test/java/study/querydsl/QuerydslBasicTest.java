@@ -21,6 +21,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberProjections;
 import study.querydsl.dto.MemberQueryProjectionDto;
 import study.querydsl.dto.QMemberQueryProjectionDto;
 import study.querydsl.dto.UserDto;
@@ -643,6 +644,20 @@ public class QuerydslBasicTest {
         }
     }
 
+    @Test
+    public void find_dto_by_direct_projection() throws Exception{
+        // 리플렉션 없이 생성자 직접 호출
+        List<MemberDto> result = queryFactory
+                .select(MemberProjections.memberDto(member))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        Assertions.assertEquals(4, result.size());
+        Assertions.assertEquals("member1", result.get(0).getUsername());
+        Assertions.assertEquals(10, result.get(0).getAge());
+    }
+
     @Test
     public void dynamic_query_by_boolean_builder() throws Exception{
         String usernameParam = "member1";
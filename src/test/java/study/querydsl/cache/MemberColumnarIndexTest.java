@@ -0,0 +1,192 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// 인덱스는 커밋된 데이터로 만들어지므로 테스트 트랜잭션 없이 실제로 커밋
+@SpringBootTest(properties = "querydsl.member.columnar-index.enabled=true")
+class MemberColumnarIndexTest {
+    @Autowired
+    MemberColumnarIndex columnarIndex;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // 이 테스트가 만든 행만 확인하고 지움 (다른 커밋된 데이터는 건드리지 않음)
+    List<Long> teamIds = new ArrayList<>();
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() throws Exception{
+        Team teamA = saveTeam("teamA");
+        Team teamB = saveTeam("teamB");
+        saveTeam("teamC");
+        for (int i = 0; i < 50; i++) {
+            Team team = i % 3 == 0 ? null : i % 3 == 1 ? teamA : teamB;
+            saveMember((i % 5 == 0 ? "admin" : "member") + i, i % 40, team);
+        }
+        saveMember("member7", 7, teamA);     // 같은 username
+        columnarIndex.rebuild();
+        awaitCurrent();
+    }
+
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAll(memberRepository.findAllById(memberIds));
+        teamRepository.deleteAll(teamRepository.findAllById(teamIds));
+    }
+
+    @Test
+    public void search_matches_jpa() throws Exception{
+        awaitCurrent();
+
+        for (MemberSearchCondition condition : conditions()) {
+            List<MemberTeamDto> indexed = created(columnarIndex.search(condition).orElseThrow());
+            Assertions.assertEquals(created(memberJpaRepository.search(condition)), indexed, condition.toString());
+        }
+    }
+
+    @Test
+    public void page_matches_jpa() throws Exception{
+        // 쓰기 트랜잭션 안에서는 인덱스를 쓰지 않음 -> 같은 메소드로 DB 결과와 비교
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (MemberSearchCondition condition : conditions()) {
+            for (int page = 0; page < 4; page++) {
+                PageRequest pageable = PageRequest.of(page, 7);
+                Page<MemberTeamDto> expected = transaction.execute(status -> memberRepository.searchPageComplex(condition, pageable));
+                Page<MemberTeamDto> indexed = columnarIndex.page(condition, pageable).orElseThrow();
+
+                Assertions.assertEquals(expected.getTotalElements(), indexed.getTotalElements(), condition.toString());
+                Assertions.assertEquals(expected.getContent(), indexed.getContent(), condition.toString());
+            }
+        }
+    }
+
+    @Test
+    public void stale_index_falls_back_to_db() throws Exception{
+        // when 커밋 직후에는 재구성 전이라도 DB 로 조회되어 새 회원이 보임
+        saveMember("newbie", 1, null);
+        MemberSearchCondition condition = new MemberSearchCondition("newbie", null, null, null);
+
+        // then
+        Assertions.assertEquals(1, memberRepository.search(condition).size());
+
+        columnarIndex.rebuild();
+        awaitCurrent();
+        Assertions.assertEquals(1, columnarIndex.search(condition).orElseThrow().size());
+    }
+
+    @Test
+    public void committed_changes_applied_without_rebuild() throws Exception{
+        // given
+        long applied = meterRegistry.get("querydsl.member.columnar-index.apply").timer().count();
+        Team teamD = saveTeam("teamD");
+        saveMember("newbie", 1, teamD);
+        Long member7 = memberIds.get(7);
+        transaction().executeWithoutResult(status -> memberRepository.findById(member7).orElseThrow().setAge(99));
+        transaction().executeWithoutResult(status -> memberRepository.deleteById(memberIds.get(0)));
+
+        // when 커밋 후 바뀐 행만 반영됨 (전체 재구성 없이, 밀린 변경은 합쳐서)
+        MemberSearchCondition byTeam = new MemberSearchCondition(null, "teamD", null, null);
+        MemberSearchCondition byAge = new MemberSearchCondition(null, null, 99, 99);
+
+        // then
+        awaitCurrent();
+        Assertions.assertEquals(List.of("newbie"), created(columnarIndex.search(byTeam).orElseThrow()).stream()
+                .map(MemberTeamDto::getUsername).collect(Collectors.toList()));
+        Assertions.assertEquals(List.of(member7), created(columnarIndex.search(byAge).orElseThrow()).stream()
+                .map(MemberTeamDto::getMemberId).collect(Collectors.toList()));
+        Assertions.assertEquals(created(memberJpaRepository.search(new MemberSearchCondition())),
+                created(columnarIndex.search(new MemberSearchCondition()).orElseThrow()));
+        Assertions.assertTrue(meterRegistry.get("querydsl.member.columnar-index.apply").timer().count() > applied);
+    }
+
+    // 변경 반영은 별도 스레드에서 -> 반영될 때까지 대기
+    private void awaitCurrent() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!columnarIndex.isCurrent() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(columnarIndex.isCurrent());
+    }
+
+    private TransactionTemplate transaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    public void keyword_search_not_served() throws Exception{
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernameKeyword("admin");
+
+        Assertions.assertTrue(columnarIndex.search(condition).isEmpty());
+    }
+
+    private Team saveTeam(String name) {
+        Team team = teamRepository.save(new Team(name));
+        teamIds.add(team.getId());
+        return team;
+    }
+
+    private void saveMember(String username, int age, Team team) {
+        memberIds.add(memberRepository.save(new Member(username, age, team)).getId());
+    }
+
+    private List<MemberTeamDto> created(List<MemberTeamDto> results) {
+        return results.stream()
+                .filter(dto -> memberIds.contains(dto.getMemberId()))
+                .collect(Collectors.toList());
+    }
+
+    private static List<MemberSearchCondition> conditions() {
+        MemberSearchCondition prefix = new MemberSearchCondition(null, "teamB", 10, null);
+        prefix.setUsernamePrefix("admin");
+        MemberSearchCondition emptyText = new MemberSearchCondition("", "", null, null);
+        return List.of(
+                new MemberSearchCondition(),
+                emptyText,
+                new MemberSearchCondition("member7", null, null, null),
+                new MemberSearchCondition(null, "teamA", null, null),
+                new MemberSearchCondition(null, "teamC", null, null),
+                new MemberSearchCondition(null, "none", null, null),
+                new MemberSearchCondition(null, null, 10, 20),
+                new MemberSearchCondition(null, null, null, 5),
+                new MemberSearchCondition(null, null, 30, null),
+                new MemberSearchCondition(null, null, 20, 10),
+                new MemberSearchCondition(null, "teamA", 15, 35),
+                prefix);
+    }
+}
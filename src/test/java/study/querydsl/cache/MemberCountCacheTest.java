@@ -0,0 +1,109 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.config.PrimaryReads;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+
+import java.time.Duration;
+
+class MemberCountCacheTest {
+
+    private final MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1), 100, new PrimaryReads(null, ""));
+
+    @Test
+    public void cached_until_changed() throws Exception{
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", null, null);
+        cache.get(condition, () -> 3);
+
+        // when 같은 조건 (정규화하면 같은 조건 포함)
+        long cached = cache.get(condition, () -> 4);
+        long normalized = cache.get(new MemberSearchCondition(" ", "teamA", null, null), () -> 5);
+
+        // then 두 번째 count 는 실행하지 않음
+        Assertions.assertEquals(3, cached);
+        Assertions.assertEquals(3, normalized);
+    }
+
+    @Test
+    public void invalidated_by_member_change() throws Exception{
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", null, null);
+        cache.get(condition, () -> 3);
+
+        cache.onEntityChanged(new MemberChangedEvent(1L));
+
+        Assertions.assertEquals(4, cache.get(condition, () -> 4));
+    }
+
+    @Test
+    public void invalidated_by_team_change() throws Exception{
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", null, null);
+        cache.get(condition, () -> 3);
+
+        cache.onEntityChanged(new TeamChangedEvent(1L));
+
+        Assertions.assertEquals(4, cache.get(condition, () -> 4));
+    }
+
+    @Test
+    public void expired_after_ttl() throws Exception{
+        // given
+        MemberCountCache shortLived = new MemberCountCache(Duration.ofMillis(50), 100, new PrimaryReads(null, ""));
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", null, null);
+        shortLived.get(condition, () -> 3);
+
+        // when
+        Thread.sleep(100);
+
+        // then
+        Assertions.assertEquals(4, shortLived.get(condition, () -> 4));
+    }
+
+    @Test
+    public void invalidated_again_after_commit() throws Exception{
+        // given flush 시점에 비운 뒤, 커밋 전에 다른 요청이 이전 건수를 다시 채움
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", null, null);
+        cache.onEntityChanged(new MemberChangedEvent(1L));
+        cache.get(condition, () -> 3);
+
+        // when 커밋 완료 (트랜잭션 밖에서는 바로 실행)
+        cache.onEntityChangeCompleted(new MemberChangedEvent(1L));
+
+        // then
+        Assertions.assertEquals(4, cache.get(condition, () -> 4));
+    }
+
+    @Test
+    public void write_transaction_bypasses_cache() throws Exception{
+        // given 쓰기 트랜잭션 안에서 센 건수 (커밋 전 데이터가 섞일 수 있음)
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", null, null);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            Assertions.assertEquals(3, cache.get(condition, () -> 3));
+            Assertions.assertEquals(4, cache.get(condition, () -> 4));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        // then 트랜잭션 밖의 조회는 새로 셈
+        Assertions.assertEquals(5, cache.get(condition, () -> 5));
+    }
+
+    @Test
+    public void count_racing_commit_is_not_cached() throws Exception{
+        // given 세는 도중에 다른 트랜잭션이 커밋되어 무효화됨
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", null, null);
+        long counted = cache.get(condition, () -> {
+            cache.onEntityChangeCompleted(new MemberChangedEvent(1L));
+            return 3;
+        });
+
+        // then 이전 건수는 돌려주기만 하고 캐시에 남기지 않음
+        Assertions.assertEquals(3, counted);
+        Assertions.assertEquals(4, cache.get(condition, () -> 4));
+    }
+}
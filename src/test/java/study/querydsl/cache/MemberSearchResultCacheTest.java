@@ -0,0 +1,143 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.config.PrimaryReads;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.event.MemberChangedEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class MemberSearchResultCacheTest {
+
+    private final MemberSearchResultCache cache =
+            new MemberSearchResultCache(true, 1000, Duration.ofMinutes(1), Duration.ofSeconds(5), new SimpleMeterRegistry(), new PrimaryReads(null, ""));
+
+    @Test
+    public void cached_until_member_changed() throws Exception{
+        // given
+        AtomicInteger queries = new AtomicInteger();
+        MemberSearchCondition condition = new MemberSearchCondition("member1", "", null, null);
+
+        // when 빈 문자열 조건은 null 과 같은 키
+        cache.search(condition, () -> rows(queries.incrementAndGet()));
+        cache.search(new MemberSearchCondition("member1", null, null, null), () -> rows(queries.incrementAndGet()));
+
+        // then
+        Assertions.assertEquals(1, queries.get());
+
+        cache.onEntityChanged(new MemberChangedEvent(1L));
+        cache.search(condition, () -> rows(queries.incrementAndGet()));
+        Assertions.assertEquals(2, queries.get());
+    }
+
+    @Test
+    public void concurrent_miss_runs_one_query() throws Exception{
+        // given
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", null, null);
+
+        // when 첫 조회가 끝나기 전에 같은 조건으로 한 번 더 조회
+        CompletableFuture<List<MemberTeamDto>> first = CompletableFuture.supplyAsync(() ->
+                cache.search(condition, () -> {
+                    started.countDown();
+                    await(release);
+                    return rows(queries.incrementAndGet());
+                }));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<MemberTeamDto>> second = CompletableFuture.supplyAsync(() ->
+                cache.search(condition, () -> rows(queries.incrementAndGet())));
+        Thread.sleep(100);
+        release.countDown();
+
+        // then
+        Assertions.assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, queries.get());
+    }
+
+    @Test
+    public void slow_query_waiter_queries_directly() throws Exception{
+        // given 먼저 들어온 조회가 대기 시간보다 오래 걸림
+        MemberSearchResultCache shortWait =
+                new MemberSearchResultCache(true, 1000, Duration.ofMinutes(1), Duration.ofMillis(50), new SimpleMeterRegistry(), new PrimaryReads(null, ""));
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", null, null);
+        CompletableFuture<List<MemberTeamDto>> first = CompletableFuture.supplyAsync(() ->
+                shortWait.search(condition, () -> {
+                    started.countDown();
+                    await(release);
+                    return rows(queries.incrementAndGet());
+                }));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        try {
+            // when 같은 조건으로 조회 -> 대기 시간이 지나면 직접 조회
+            List<MemberTeamDto> second = shortWait.search(condition, () -> rows(queries.incrementAndGet()));
+
+            // then
+            Assertions.assertEquals(1, queries.get());
+            Assertions.assertEquals(rows(1), second);
+        } finally {
+            release.countDown();
+        }
+        first.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(2, queries.get());
+    }
+
+    @Test
+    public void write_transaction_bypasses_cache() throws Exception{
+        // given
+        AtomicInteger queries = new AtomicInteger();
+        MemberSearchCondition condition = new MemberSearchCondition("member1", null, null, null);
+
+        // when 쓰기 트랜잭션 안에서 조회 -> 캐시에도 in-flight 에도 올리지 않음
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            cache.search(condition, () -> rows(queries.incrementAndGet()));
+            cache.search(condition, () -> rows(queries.incrementAndGet()));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        cache.search(condition, () -> rows(queries.incrementAndGet()));
+
+        // then 트랜잭션 밖의 조회는 새로 조회
+        Assertions.assertEquals(3, queries.get());
+    }
+
+    @Test
+    public void disabled_always_queries() throws Exception{
+        MemberSearchResultCache disabled =
+                new MemberSearchResultCache(false, 1000, Duration.ofMinutes(1), Duration.ofSeconds(5), new SimpleMeterRegistry(), new PrimaryReads(null, ""));
+        AtomicInteger queries = new AtomicInteger();
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        disabled.search(condition, () -> rows(queries.incrementAndGet()));
+        disabled.search(condition, () -> rows(queries.incrementAndGet()));
+
+        Assertions.assertEquals(2, queries.get());
+    }
+
+    private static List<MemberTeamDto> rows(int n) {
+        return List.of(new MemberTeamDto((long) n, "member" + n, n, 1L, "teamA"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
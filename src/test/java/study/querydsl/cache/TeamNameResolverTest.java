@@ -0,0 +1,74 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@SpringBootTest
+@Transactional
+class TeamNameResolverTest {
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamNameResolver teamNameResolver;
+
+    @Autowired
+    TeamJpaRepository teamJpaRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    @Transactional(readOnly = true)
+    public void cached_outside_write_transaction() throws Exception{
+        // given 없는 팀명도 빈 목록으로 캐시됨
+        teamNameResolver.invalidateAll();
+        Assertions.assertEquals(List.of(), teamNameResolver.resolve("teamC"));
+        double hitsBefore = hits();
+
+        // when
+        Assertions.assertEquals(List.of(), teamNameResolver.resolve("teamC"));
+
+        // then
+        Assertions.assertEquals(hitsBefore + 1, hits());
+    }
+
+    @Test
+    public void resolve_and_invalidate_on_save() throws Exception{
+        // given 쓰기 트랜잭션 안에서 조회한 결과는 캐시하지 않음
+        teamNameResolver.invalidateAll();
+        Assertions.assertEquals(List.of(), teamNameResolver.resolve("teamC"));
+        double hitsBefore = hits();
+        Assertions.assertEquals(List.of(), teamNameResolver.resolve("teamC"));
+        Assertions.assertEquals(hitsBefore, hits());
+
+        // when 팀 저장 (flush 전)
+        Team teamC = new Team("teamC");
+        teamJpaRepository.save(teamC);
+        memberRepository.save(new Member("member1", 10, teamC));
+
+        // then 바로 조회됨
+        Assertions.assertEquals(List.of(teamC.getId()), teamNameResolver.resolve("teamC"));
+        Assertions.assertEquals(1, memberRepository.search(new MemberSearchCondition(null, "teamC", null, null)).size());
+    }
+
+    private double hits() {
+        return meterRegistry.get("cache.gets").tag("cache", "teamNameToId").tag("result", "hit")
+                .functionCounter().count();
+    }
+}
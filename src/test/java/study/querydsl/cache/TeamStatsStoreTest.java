@@ -0,0 +1,185 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamMemberStats;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberBulkOperations;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static study.querydsl.entity.QMember.member;
+
+// 증감분은 커밋 후에 반영되므로 테스트 트랜잭션 없이 실제로 커밋
+@SpringBootTest(properties = "querydsl.team-stats.check-interval=3600000")
+class TeamStatsStoreTest {
+    @Autowired
+    TeamStatsStore teamStatsStore;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberBulkOperations memberBulkOperations;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Team teamA;
+    Team teamB;
+    // 이 테스트가 만든 행만 확인하고 지움 (다른 커밋된 데이터는 건드리지 않음)
+    List<Long> teamIds = new ArrayList<>();
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        teamA = saveTeam("teamA");
+        teamB = saveTeam("teamB");
+        saveMember("member1", 10, teamA);
+        saveMember("member2", 20, teamA);
+        saveMember("member3", 30, teamB);
+        teamStatsStore.reconcile();
+    }
+
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAll(memberRepository.findAllById(memberIds));
+        teamRepository.deleteAll(teamRepository.findAllById(teamIds));
+    }
+
+    @Test
+    public void incremental_insert_update_delete() throws Exception{
+        // insert
+        Member member4 = saveMember("member4", 40, teamA);
+        assertStats(teamA, 3, 10, 40);
+
+        // update: teamA -> teamB 로 옮기면서 나이 변경
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            Member member = em.find(Member.class, member4.getId());
+            member.setAge(5);
+            member.setTeam(em.getReference(Team.class, teamB.getId()));
+        });
+        assertStats(teamA, 2, 10, 20);
+        assertStats(teamB, 2, 5, 30);
+
+        // delete
+        memberRepository.deleteById(member4.getId());
+        assertStats(teamB, 1, 30, 30);
+
+        // 새 팀은 회원 0명으로 보임
+        Team teamC = saveTeam("teamC");
+        assertStats(teamC, 0, null, null);
+        Assertions.assertEquals(created(teamRepository.findTeamStats()), created(teamStatsStore.findAll()));
+    }
+
+    @Test
+    public void rollback_is_not_applied() throws Exception{
+        // when
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            em.persist(new Member("member4", 99, em.getReference(Team.class, teamA.getId())));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        // then
+        assertStats(teamA, 2, 10, 20);
+    }
+
+    @Test
+    public void commit_overlapping_reconcile_marks_stale() throws Exception{
+        // when flush 이후 ~ 커밋 전에 재계산 (커밋 전이라 집계에는 빠짐)
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long memberId = transaction.execute(status -> {
+            Member member4 = new Member("member4", 40, em.getReference(Team.class, teamA.getId()));
+            em.persist(member4);
+            em.flush();
+            teamStatsStore.reconcile();
+            return member4.getId();
+        });
+        memberIds.add(memberId);
+
+        // then 증감분은 반영되고, 재계산과 겹쳤으므로 다시 집계 대상
+        assertStats(teamA, 3, 10, 40);
+        Assertions.assertTrue(teamStatsStore.isStale());
+
+        teamStatsStore.reconcile();
+        Assertions.assertFalse(teamStatsStore.isStale());
+        assertStats(teamA, 3, 10, 40);
+    }
+
+    @Test
+    public void commit_after_reconcile_is_not_stale() throws Exception{
+        // when 재계산이 끝난 뒤 시작한 트랜잭션
+        saveMember("member4", 40, teamA);
+
+        // then
+        assertStats(teamA, 3, 10, 40);
+        Assertions.assertFalse(teamStatsStore.isStale());
+    }
+
+    @Test
+    public void bulk_update_reconciles() throws Exception{
+        // when 벌크 연산은 post 이벤트가 없으므로 조회가 백그라운드 재집계를 요청 (조회는 기다리지 않음)
+        memberBulkOperations.updateWhere(new MemberSearchCondition(null, "teamA", null, null),
+                update -> update.set(member.age, 50));
+        Assertions.assertTrue(teamStatsStore.isDirty());
+        teamStatsStore.findAll();
+
+        // then
+        long deadline = System.currentTimeMillis() + 5000;
+        while (teamStatsStore.isDirty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertFalse(teamStatsStore.isDirty());
+        assertStats(teamA, 2, 50, 50);
+        Assertions.assertEquals(100L, teamStatsStore.find(teamA.getId()).orElseThrow().getAgeSum());
+        Assertions.assertEquals(created(teamRepository.findTeamStats()), created(teamStatsStore.findAll()));
+    }
+
+    private Team saveTeam(String name) {
+        Team team = teamRepository.save(new Team(name));
+        teamIds.add(team.getId());
+        return team;
+    }
+
+    private Member saveMember(String username, int age, Team team) {
+        Member member = memberRepository.save(new Member(username, age, team));
+        memberIds.add(member.getId());
+        return member;
+    }
+
+    private List<TeamMemberStats> created(List<TeamMemberStats> stats) {
+        return stats.stream()
+                .filter(s -> teamIds.contains(s.getTeamId()))
+                .collect(Collectors.toList());
+    }
+
+    private void assertStats(Team team, long count, Integer minAge, Integer maxAge) {
+        TeamMemberStats stats = teamStatsStore.find(team.getId()).orElseThrow();
+        Assertions.assertEquals(team.getName(), stats.getTeamName());
+        Assertions.assertEquals(count, stats.getMemberCount());
+        Assertions.assertEquals(minAge, stats.getMinAge());
+        Assertions.assertEquals(maxAge, stats.getMaxAge());
+    }
+}
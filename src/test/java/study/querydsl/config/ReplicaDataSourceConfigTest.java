@@ -0,0 +1,90 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+
+// H2 인메모리 DB 두 개로 라우팅만 확인 (replica 에는 스키마가 없으므로 커넥션 URL 로 판단)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "querydsl.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1"
+})
+class ReplicaDataSourceConfigTest {
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    PrimaryReads primaryReads;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void read_only_transaction_uses_replica() throws Exception{
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        double replicaRoutes = meterRegistry.get("querydsl.datasource.route").tag("route", "replica").counter().count();
+
+        String writeUrl = readWrite.execute(status -> connectionUrl());
+        String readUrl = readOnly.execute(status -> connectionUrl());
+
+        Assertions.assertTrue(writeUrl.contains("mem:primary"), writeUrl);
+        Assertions.assertTrue(readUrl.contains("mem:replica"), readUrl);
+        Assertions.assertEquals(replicaRoutes + 1,
+                meterRegistry.get("querydsl.datasource.route").tag("route", "replica").counter().count());
+        Assertions.assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica").gauge());
+    }
+
+    @Test
+    public void primary_reads_use_primary_inside_read_only_transaction() throws Exception{
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // when
+        String[] urls = readOnly.execute(status -> new String[]{
+                primaryReads.read(this::connectionUrl),
+                connectionUrl()
+        });
+
+        // then 안쪽만 primary, 바깥 읽기 전용 트랜잭션은 그대로 replica
+        Assertions.assertTrue(urls[0].contains("mem:primary"), urls[0]);
+        Assertions.assertTrue(urls[1].contains("mem:replica"), urls[1]);
+    }
+
+    @Test
+    public void keyword_search_reads_full_text_index_on_primary() throws Exception{
+        // given replica 에는 스키마(전문 검색 인덱스)가 없으므로 replica 에서 읽으면 예외
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernameKeyword("member1");
+
+        // when
+        int results = memberRepository.search(condition).size();
+        long total = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)).getTotalElements();
+
+        // then
+        Assertions.assertEquals(0, results);
+        Assertions.assertEquals(0, total);
+    }
+
+    private String connectionUrl() {
+        return em.unwrap(Session.class).doReturningWork(connection -> connection.getMetaData().getURL());
+    }
+}
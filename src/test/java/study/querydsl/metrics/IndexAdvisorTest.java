@@ -0,0 +1,37 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@SpringBootTest
+@Transactional
+class IndexAdvisorTest {
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    IndexAdvisor indexAdvisor;
+
+    @Test
+    public void every_search_predicate_uses_index() throws Exception{
+        // given 팀이 있어야 팀 조건 검색의 member 쿼리까지 실행됨
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.flush();
+
+        // when 리포지토리 검색이 실제로 만든 SQL 의 실행 계획을 검사
+        List<String> warnings = indexAdvisor.check();
+
+        // then
+        Assertions.assertEquals(List.of(), warnings);
+    }
+}
@@ -0,0 +1,50 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+
+// p6spy 를 꺼도(부하 테스트 / JMH 설정) statement 가 세어져야 함
+@SpringBootTest(properties = "decorator.datasource.enabled=false")
+@Transactional
+class NPlusOneDetectorTest {
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    NPlusOneDetector nPlusOneDetector;
+
+    @Test
+    public void detects_without_p6spy() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamB));
+        em.flush();
+        em.clear();
+
+        // when
+        nPlusOneDetector.begin();
+        for (Member member : memberRepository.findAll()) {
+            member.getTeam().getName();
+        }
+        LazyLoadReport report = nPlusOneDetector.end();
+
+        // then 회원 조회 1번 + 팀 배치 페치 1번
+        Assertions.assertEquals(2, report.getStatements());
+        Assertions.assertEquals(1, report.lazyLoadsOf(Team.class.getName()));
+    }
+}
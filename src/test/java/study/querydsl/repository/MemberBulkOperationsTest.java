@@ -0,0 +1,97 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.BulkMutationResult;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest(properties = "querydsl.bulk.chunk-size=2")
+@Transactional
+class MemberBulkOperationsTest {
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberBulkOperations memberBulkOperations;
+
+    @Test
+    public void update_where() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        for (int i = 2; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        em.persist(new Member("member6", 60));
+
+        // when flush/clear 없이 벌크 update
+        BulkMutationResult result = memberBulkOperations.updateWhere(
+                new MemberSearchCondition(null, "teamA", null, 40),
+                update -> update.set(member.age, member.age.add(1)));
+
+        // then 청크 크기 2 -> 2 + 2, 영속성 컨텍스트의 member1 도 갱신됨
+        Assertions.assertEquals(List.of(2L, 2L), result.getChunkCounts());
+        Assertions.assertEquals(4, result.getTotal());
+        Assertions.assertEquals(11, member1.getAge());
+        Assertions.assertEquals(50, em.createQuery("select m.age from Member m where m.username = 'member5'", Integer.class).getSingleResult());
+    }
+
+    @Test
+    public void delete_where() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamA);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+
+        // when
+        BulkMutationResult result = memberBulkOperations.deleteWhere(new MemberSearchCondition(null, null, null, 25));
+
+        // then 삭제된 회원은 영속성 컨텍스트와 team.members 에서 빠짐
+        Assertions.assertEquals(2, result.getTotal());
+        Assertions.assertFalse(em.contains(member1));
+        Assertions.assertFalse(em.contains(member2));
+        Assertions.assertEquals(List.of(member3), teamA.getMembers());
+        Assertions.assertNull(em.find(Member.class, member1.getId()));
+    }
+
+    @Test
+    public void update_where_keyword_over_chunk_size() throws Exception{
+        // given 키워드에 맞는 회원 3명 > 청크 크기 2, "minsuk" 은 단어가 달라서 대상 아님
+        for (int i = 1; i <= 3; i++) {
+            em.persist(new Member("kim" + i + " minsu", 10));
+        }
+        em.persist(new Member("kim jiho", 10));
+        em.persist(new Member("kim minsuk", 10));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernameKeyword("minsu");
+
+        // when
+        BulkMutationResult result = memberBulkOperations.updateWhere(condition,
+                update -> update.set(member.age, member.age.add(1)));
+
+        // then 잘리지 않고 맞는 회원 전부, like 처럼 부분 문자열로 넓어지지 않음
+        Assertions.assertEquals(3, result.getTotal());
+        Assertions.assertEquals(List.of(11, 11, 11), em.createQuery(
+                "select m.age from Member m where m.username like 'kim_ minsu'", Integer.class).getResultList());
+        Assertions.assertEquals(10, em.createQuery(
+                "select m.age from Member m where m.username = 'kim minsuk'", Integer.class).getSingleResult());
+    }
+}
@@ -1,17 +1,31 @@
 package study.querydsl.repository;
 
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberView;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.metrics.MeteredJPAQuery;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
 
 @SpringBootTest
 @Transactional
@@ -25,6 +39,21 @@ class MemberJpaRepositoryTest {
     @Autowired
     TeamJpaRepository teamJpaRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberSearchQueryTemplates queryTemplates;
+
     @Test
     public void basic_test() throws Exception {
         // given
@@ -93,4 +122,195 @@ class MemberJpaRepositoryTest {
         // then
         Assertions.assertEquals(result.get(0).getUsername(), member2.getUsername());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void query_metrics() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        teamJpaRepository.save(teamA);
+        memberJpaRepository.save(new Member("member1", 10, teamA));
+        memberJpaRepository.save(new Member("member2", 20, teamA));
+
+        // when
+        memberJpaRepository.searchByBuilder(new MemberSearchCondition(null, "teamA", null, null));
+
+        // then 호출 위치에서 붙인 이름이 태그로 남음 (JPQL 직렬화 X)
+        Timer timer = meterRegistry.get("querydsl.query")
+                .tag("query", "member.searchByBuilder")
+                .tag("operation", "fetch")
+                .tag("outcome", "success")
+                .timer();
+        Assertions.assertTrue(timer.count() >= 1);
+        Assertions.assertTrue(meterRegistry.get("querydsl.query.rows")
+                .tag("query", "member.searchByBuilder")
+                .summary().totalAmount() >= 2);
+    }
+
+    @Test
+    public void query_metrics_failure() throws Exception{
+        // given
+        memberJpaRepository.save(new Member("member1", 10));
+        memberJpaRepository.save(new Member("member2", 20));
+
+        // when 결과가 둘 이상인 fetchOne (태그 이름은 직접 지정)
+        MeteredJPAQuery<Member> query = (MeteredJPAQuery<Member>) queryFactory.selectFrom(member);
+        Assertions.assertThrows(NonUniqueResultException.class, () -> query.name("member.failingFetchOne").fetchOne());
+
+        // then 실패한 쿼리도 outcome=error 로 기록
+        Assertions.assertEquals(1, meterRegistry.get("querydsl.query")
+                .tag("query", "member.failingFetchOne")
+                .tag("outcome", "error")
+                .timer().count());
+    }
+
+    @Test
+    public void query_templates_match_querydsl() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        teamJpaRepository.save(teamA);
+        teamJpaRepository.save(teamB);
+        for (int i = 0; i < 10; i++) {
+            String username = (i % 2 == 0 ? "kim member" : "lee member") + (i % 5);
+            memberJpaRepository.save(new Member(username, i * 10, i % 3 == 0 ? null : i % 3 == 1 ? teamA : teamB));
+        }
+        em.flush();
+
+        // when / then 64가지 조건 모양(접두사 / 키워드 포함) 모두 querydsl(BooleanBuilder) 결과와 같아야 함
+        for (int shape = 0; shape < 64; shape++) {
+            List<MemberTeamDto> expected = memberJpaRepository.searchByBuilder(conditionOf(shape));
+            List<MemberTeamDto> actual = memberJpaRepository.search(conditionOf(shape));
+            expected.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+            actual.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+            Assertions.assertEquals(expected, actual, "shape " + shape);
+        }
+        // 접두사 kim + 키워드 member1 -> "kim member1" 한 명
+        Assertions.assertEquals(List.of("kim member1"), memberJpaRepository.search(conditionOf(16 | 32)).stream()
+                .map(MemberTeamDto::getUsername)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void query_templates_offset_over_int_range() throws Exception{
+        // given
+        memberJpaRepository.save(new Member("member1", 10));
+        em.flush();
+
+        // when int 범위를 넘는 offset (ex. 아주 큰 page 번호) -> querydsl 과 같이 예외 없이 빈 페이지
+        List<MemberTeamDto> results = queryTemplates.fetch(new MemberSearchCondition(), Integer.MAX_VALUE + 1L, 10);
+
+        // then
+        Assertions.assertTrue(results.isEmpty());
+    }
+
+    private static MemberSearchCondition conditionOf(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition(
+                (shape & 1) != 0 ? "kim member1" : null,
+                (shape & 2) != 0 ? "teamB" : null,
+                (shape & 4) != 0 ? 10 : null,
+                (shape & 8) != 0 ? 70 : null);
+        condition.setUsernamePrefix((shape & 16) != 0 ? "kim" : null);
+        condition.setUsernameKeyword((shape & 32) != 0 ? "member1" : null);
+        return condition;
+    }
+
+    @Test
+    public void builder_and_stream_apply_prefix_and_keyword() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        teamJpaRepository.save(teamA);
+        Member kimMinsu = new Member("kim minsu", 10, teamA);
+        memberJpaRepository.save(kimMinsu);
+        memberJpaRepository.save(new Member("lee minsu", 20, teamA));
+        memberJpaRepository.save(new Member("kim jiho", 30, teamA));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", null, null);
+        condition.setUsernamePrefix("kim");
+        condition.setUsernameKeyword("minsu");
+
+        // when
+        List<MemberTeamDto> byBuilder = memberJpaRepository.searchByBuilder(condition);
+        List<MemberTeamDto> streamed;
+        try (Stream<MemberTeamDto> rows = memberJpaRepository.searchStream(condition)) {
+            streamed = rows.collect(Collectors.toList());
+        }
+
+        // then search 와 같은 조건
+        Assertions.assertEquals(memberJpaRepository.search(condition), byBuilder);
+        Assertions.assertEquals(byBuilder, streamed);
+        Assertions.assertEquals(List.of(kimMinsu.getId()), streamed.stream().map(MemberTeamDto::getMemberId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void query_templates_serialized_from_predicate() throws Exception{
+        // given
+        teamJpaRepository.save(new Team("teamA"));
+
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", 10, null);
+
+        // when
+        memberJpaRepository.search(condition);
+
+        // then MemberSearchPredicate 를 직렬화한 JPQL 에 이름 있는 파라미터 자리가 그대로 남고, 태그는 조건 모양 이름
+        Assertions.assertTrue(queryTemplates.jpqlOf(condition)
+                .endsWith("where member1.team.id in :teamIds and member1.age >= :ageGoe\norder by member1.id asc"));
+        Assertions.assertTrue(meterRegistry.get("querydsl.query")
+                .tag("query", "member.search.teamName+ageGoe")
+                .tag("operation", "fetch")
+                .timer().count() >= 1);
+    }
+
+    @Test
+    public void read_model_views() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        teamJpaRepository.save(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        memberJpaRepository.save(member1);
+        memberJpaRepository.save(new Member("member2", 20));
+        em.flush();
+        em.clear();
+
+        // when
+        MemberView view = memberJpaRepository.findViewById(member1.getId()).orElseThrow();
+        List<MemberView> all = memberJpaRepository.findAllViews();
+        List<MemberView> byUsername = memberJpaRepository.findViewsByUsername("member2");
+
+        // then 엔티티가 영속성 컨텍스트에 올라오지 않음
+        Assertions.assertEquals(new MemberView(member1.getId(), "member1", 10, teamA.getId()), view);
+        Assertions.assertEquals(2, all.size());
+        Assertions.assertEquals(1, byUsername.size());
+        Assertions.assertNull(byUsername.get(0).teamId());
+        Assertions.assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void scan_views_with_stateless_session() throws Exception{
+        // given StatelessSession 은 별도 커넥션 -> 커밋된 데이터로 확인
+        Team teamA = teamRepository.save(new Team("scanTeam"));
+        List<Long> memberIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            memberIds.add(memberRepository.save(new Member("member" + i, i, teamA)).getId());
+        }
+
+        try {
+            // when
+            List<MemberView> views = new ArrayList<>();
+            long count = memberJpaRepository.scanViews(views::add);
+
+            // then 만든 회원만 골라서 확인 (다른 커밋된 데이터가 있을 수 있음), id 순서
+            List<MemberView> created = views.stream()
+                    .filter(view -> memberIds.contains(view.id()))
+                    .collect(Collectors.toList());
+            Assertions.assertEquals(views.size(), count);
+            Assertions.assertEquals(memberIds, created.stream().map(MemberView::id).collect(Collectors.toList()));
+            Assertions.assertEquals("member0", created.get(0).username());
+            Assertions.assertEquals(teamA.getId(), created.get(4).teamId());
+        } finally {
+            memberRepository.deleteAll(memberRepository.findAllById(memberIds));
+            teamRepository.deleteById(teamA.getId());
+        }
+    }
+}
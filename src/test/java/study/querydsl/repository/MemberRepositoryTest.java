@@ -1,19 +1,31 @@
 package study.querydsl.repository;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.InvalidCursorException;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberPageOptions;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSlice;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberView;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.metrics.LazyLoadReport;
+import study.querydsl.metrics.NPlusOneDetector;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @SpringBootTest
 @Transactional
@@ -27,6 +39,9 @@ class MemberRepositoryTest {
     @Autowired
     TeamRepository teamRepository;
 
+    @Autowired
+    NPlusOneDetector nPlusOneDetector;
+
     @Test
     public void basic_test() throws Exception {
         // given
@@ -44,6 +59,25 @@ class MemberRepositoryTest {
         Assertions.assertEquals(member1, member1s.get(0));
     }
 
+    @Test
+    public void find_views_by_username() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        Member member1 = memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 20));
+        em.flush();
+        em.clear();
+
+        // when
+        List<MemberView> views = memberRepository.findViewsByUsername("member1");
+
+        // then 엔티티가 영속성 컨텍스트에 올라오지 않음
+        Assertions.assertEquals(List.of(new MemberView(member1.getId(), "member1", 10, teamA.getId())), views);
+        Assertions.assertFalse(em.contains(member1));
+        Assertions.assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
     @Test
     public void where_test() throws Exception{
         // given
@@ -121,4 +155,300 @@ class MemberRepositoryTest {
         // then
         Assertions.assertEquals(3, result.getSize());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void search_slice() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+
+        Member member1 = new Member("member1", 40, teamA);
+        Member member2 = new Member("member2", 30, teamA);
+        Member member3 = new Member("member3", 20, teamB);
+        Member member4 = new Member("member4", 10, teamB);
+        memberRepository.save(member1);
+        memberRepository.save(member2);
+        memberRepository.save(member3);
+        memberRepository.save(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // when
+        MemberSlice first = memberRepository.searchSlice(condition, MemberCursor.first(MemberCursor.SortKey.ID), 3);
+        MemberSlice second = memberRepository.searchSlice(condition, MemberCursor.decode(first.getNextCursor()), 3);
+
+        // then
+        Assertions.assertEquals(3, first.getContent().size());
+        Assertions.assertTrue(first.isHasNext());
+        Assertions.assertEquals(member1.getId(), first.getContent().get(0).getMemberId());
+        Assertions.assertEquals(1, second.getContent().size());
+        Assertions.assertFalse(second.isHasNext());
+        Assertions.assertNull(second.getNextCursor());
+        Assertions.assertEquals(member4.getId(), second.getContent().get(0).getMemberId());
+    }
+
+    @Test
+    public void search_slice_by_age() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+
+        Member member1 = new Member("member1", 20, teamA);
+        Member member2 = new Member("member2", 10, teamA);
+        Member member3 = new Member("member3", 20, teamA);
+        Member member4 = new Member("member4", 10, teamA);
+        memberRepository.save(member1);
+        memberRepository.save(member2);
+        memberRepository.save(member3);
+        memberRepository.save(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // when
+        MemberSlice first = memberRepository.searchSlice(condition, MemberCursor.first(MemberCursor.SortKey.AGE), 2);
+        MemberSlice second = memberRepository.searchSlice(condition, MemberCursor.decode(first.getNextCursor()), 2);
+
+        // then (age, id) 순서
+        Assertions.assertEquals(member2.getId(), first.getContent().get(0).getMemberId());
+        Assertions.assertEquals(member4.getId(), first.getContent().get(1).getMemberId());
+        Assertions.assertEquals(member1.getId(), second.getContent().get(0).getMemberId());
+        Assertions.assertEquals(member3.getId(), second.getContent().get(1).getMemberId());
+        Assertions.assertFalse(second.isHasNext());
+    }
+
+    @Test
+    public void search_page_id_first() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", 10, null);
+        PageRequest pageRequest = PageRequest.of(1, 2);
+
+        // when
+        Page<MemberTeamDto> single = memberRepository.searchPageComplex(condition, pageRequest,
+                new MemberPageOptions(MemberPageOptions.PagingStrategy.SINGLE_QUERY));
+        Page<MemberTeamDto> idFirst = memberRepository.searchPageComplex(condition, pageRequest,
+                new MemberPageOptions(MemberPageOptions.PagingStrategy.ID_FIRST));
+
+        // then
+        Assertions.assertEquals(single.getTotalElements(), idFirst.getTotalElements());
+        Assertions.assertEquals(4, idFirst.getTotalElements());
+        Assertions.assertEquals(List.of("member6", "member8"),
+                idFirst.getContent().stream().map(MemberTeamDto::getUsername).collect(Collectors.toList()));
+        Assertions.assertEquals("teamA", idFirst.getContent().get(0).getTeamName());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void search_page_cached_count() throws Exception{
+        // given 쓰기 트랜잭션 안에서는 캐시를 쓰지 않으므로 트랜잭션 없이 실제로 커밋
+        // 이 테스트에서만 쓰는 팀명으로 조건을 걸어 만든 회원만 세어지게 함
+        Team team = teamRepository.save(new Team("cachedCountTeam"));
+        List<Long> memberIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            memberIds.add(memberRepository.save(new Member("member" + i, i * 10, team)).getId());
+        }
+        MemberSearchCondition condition = new MemberSearchCondition(null, "cachedCountTeam", null, null);
+        MemberPageOptions options = new MemberPageOptions(MemberPageOptions.CountMode.CACHED);
+        PageRequest pageRequest = PageRequest.of(0, 3);
+
+        try {
+            // when 회원 저장이 커밋되면 캐시 무효화
+            Page<MemberTeamDto> before = memberRepository.searchPageComplex(condition, pageRequest, options);
+            memberIds.add(memberRepository.save(new Member("member4", 40, team)).getId());
+            Page<MemberTeamDto> after = memberRepository.searchPageComplex(condition, pageRequest, options);
+
+            // then
+            Assertions.assertEquals(4, before.getTotalElements());
+            Assertions.assertEquals(5, after.getTotalElements());
+        } finally {
+            memberRepository.deleteAll(memberRepository.findAllById(memberIds));
+            teamRepository.deleteById(team.getId());
+        }
+    }
+
+    @Test
+    public void search_page_estimated_count() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("member" + i, i * 10, teamA));
+        }
+
+        MemberPageOptions options = new MemberPageOptions(MemberPageOptions.CountMode.ESTIMATED);
+        options.setCountLimit(5);
+
+        // when
+        Page<MemberTeamDto> capped = memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 3), options);
+        Page<MemberTeamDto> exact = memberRepository.searchPageComplex(new MemberSearchCondition(null, null, 60, null), PageRequest.of(0, 3), options);
+
+        // then
+        Assertions.assertTrue(capped instanceof ApproximatePage);
+        Assertions.assertEquals(6, capped.getTotalElements());
+        Assertions.assertFalse(exact instanceof ApproximatePage);
+        Assertions.assertEquals(4, exact.getTotalElements());
+
+        // 클라이언트가 보낸 상한은 서버 최대값으로 잘림
+        options.setCountLimit(Integer.MAX_VALUE);
+        Assertions.assertEquals(MemberPageOptions.MAX_COUNT_LIMIT, options.getCountLimit());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void search_page_parallel_count() throws Exception{
+        // given count 는 다른 커넥션에서 실행되므로 커밋된 데이터로 확인
+        // 이 테스트에서만 쓰는 팀명으로 조건을 걸어 만든 회원만 세어지게 함
+        Team team = teamRepository.save(new Team("parallelCountTeam"));
+        List<Long> memberIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            memberIds.add(memberRepository.save(new Member("member" + i, i * 10, team)).getId());
+        }
+        MemberPageOptions options = new MemberPageOptions();
+        options.setParallelCount(true);
+
+        try {
+            // when
+            Page<MemberTeamDto> result = memberRepository.searchPageComplex(new MemberSearchCondition(null, "parallelCountTeam", 20, null), PageRequest.of(1, 3), options);
+
+            // then
+            Assertions.assertFalse(result instanceof ApproximatePage);
+            Assertions.assertEquals(8, result.getTotalElements());
+            Assertions.assertEquals(3, result.getContent().size());
+        } finally {
+            memberRepository.deleteAll(memberRepository.findAllById(memberIds));
+            teamRepository.deleteById(team.getId());
+        }
+    }
+
+    @Test
+    public void search_page_parallel_count_in_write_transaction() throws Exception{
+        // given 커밋 전 데이터 -> 같은 커넥션에서 순차 실행으로 대체
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("member" + i, i * 10, teamA));
+        }
+        MemberPageOptions options = new MemberPageOptions();
+        options.setParallelCount(true);
+
+        // when
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 3), options);
+
+        // then
+        Assertions.assertEquals(10, result.getTotalElements());
+
+        // 클라이언트가 보낸 대기 시간은 서버 범위로 잘림
+        options.setCountTimeoutMillis(Long.MAX_VALUE);
+        Assertions.assertEquals(MemberPageOptions.MAX_COUNT_TIMEOUT_MILLIS, options.getCountTimeoutMillis());
+        options.setCountTimeoutMillis(-1);
+        Assertions.assertEquals(MemberPageOptions.MIN_COUNT_TIMEOUT_MILLIS, options.getCountTimeoutMillis());
+    }
+
+    @Test
+    public void search_username_prefix() throws Exception{
+        // given like 특수문자는 문자 그대로 비교
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("50%_off", 10, teamA));
+        memberRepository.save(new Member("500", 20, teamA));
+        memberRepository.save(new Member("member1", 30, teamA));
+        memberRepository.save(new Member("member10", 40, teamA));
+
+        MemberSearchCondition special = new MemberSearchCondition();
+        special.setUsernamePrefix("50%_");
+        MemberSearchCondition prefix = new MemberSearchCondition();
+        prefix.setUsernamePrefix("member1");
+
+        // when / then
+        Assertions.assertEquals(List.of("50%_off"), usernames(memberRepository.search(special)));
+        Assertions.assertEquals(List.of("member1", "member10"), usernames(memberRepository.search(prefix)));
+        Assertions.assertEquals(2, memberRepository.searchPageComplex(prefix, PageRequest.of(0, 1)).getTotalElements());
+    }
+
+    @Test
+    public void search_username_keyword() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("kim minsu", 10, teamA));
+        memberRepository.save(new Member("lee minsu", 20, teamA));
+        memberRepository.save(new Member("kim jisoo", 30, teamA));
+        em.flush();
+
+        MemberSearchCondition minsu = new MemberSearchCondition();
+        minsu.setUsernameKeyword("minsu");
+        MemberSearchCondition kimMinsu = new MemberSearchCondition();
+        kimMinsu.setUsernameKeyword("kim minsu");
+        MemberSearchCondition none = new MemberSearchCondition();
+        none.setUsernameKeyword("park");
+
+        // when / then
+        Assertions.assertEquals(List.of("kim minsu", "lee minsu"), usernames(memberRepository.search(minsu)));
+        Assertions.assertEquals(List.of("kim minsu"), usernames(memberRepository.search(kimMinsu)));
+        Assertions.assertEquals(List.of(), usernames(memberRepository.search(none)));
+        Assertions.assertEquals(2, memberRepository.searchPageComplex(minsu, PageRequest.of(0, 1)).getTotalElements());
+    }
+
+    private static List<String> usernames(List<MemberTeamDto> results) {
+        return results.stream()
+                .map(MemberTeamDto::getUsername)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void detect_lazy_loading() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+        for (int i = 0; i < 4; i++) {
+            memberRepository.save(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+
+        // when
+        nPlusOneDetector.begin();
+        for (Member member : memberRepository.findAll()) {
+            member.getTeam().getName();
+        }
+        LazyLoadReport lazy = nPlusOneDetector.end();
+        em.clear();
+
+        nPlusOneDetector.begin();
+        for (Member member : memberRepository.findAllWithTeam()) {
+            member.getTeam().getName();
+        }
+        LazyLoadReport fetched = nPlusOneDetector.end();
+        em.clear();
+
+        nPlusOneDetector.begin();
+        for (Member member : memberRepository.searchWithTeam(new MemberSearchCondition(null, "teamA", null, null))) {
+            member.getTeam().getName();
+        }
+        LazyLoadReport fetchedQuerydsl = nPlusOneDetector.end();
+
+        // then 팀 2개 -> 첫 프록시 초기화 때 배치 페치로 두 팀을 select 한 번에 (두 번째 팀은 statement 없음)
+        Assertions.assertEquals(1, lazy.lazyLoadsOf(Team.class.getName()));
+        Assertions.assertEquals(0, fetched.lazyLoadsOf(Team.class.getName()));
+        Assertions.assertEquals(0, fetchedQuerydsl.lazyLoadsOf(Team.class.getName()));
+    }
+
+    @Test
+    public void invalid_cursor() throws Exception{
+        Assertions.assertThrows(InvalidCursorException.class, () -> MemberCursor.decode("not-a-cursor"));
+        Assertions.assertThrows(InvalidCursorException.class, () -> MemberCursor.decode(""));
+    }
+}
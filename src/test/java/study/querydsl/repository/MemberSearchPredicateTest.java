@@ -0,0 +1,31 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+
+class MemberSearchPredicateTest {
+
+    @Test
+    public void team_join_not_required() throws Exception{
+        // given
+        MemberSearchPredicate memberOnly = MemberSearchPredicate.of(new MemberSearchCondition("member1", "", 10, 20), name -> List.of(), keyword -> null);
+        MemberSearchPredicate withTeam = MemberSearchPredicate.of(new MemberSearchCondition(null, "teamA", null, null), name -> List.of(1L, 2L), keyword -> null);
+
+        // then 팀명 조건은 member.team.id 로 바뀌므로 team 조인이 필요 없음
+        Assertions.assertEquals(3, memberOnly.toArray().length);
+        Assertions.assertEquals(1, withTeam.toArray().length);
+        Assertions.assertEquals(member.team.id.in(1L, 2L), withTeam.toArray()[0]);
+    }
+
+    @Test
+    public void empty_condition() throws Exception{
+        MemberSearchPredicate predicate = MemberSearchPredicate.of(new MemberSearchCondition(), name -> List.of(), keyword -> null);
+
+        Assertions.assertEquals(0, predicate.toArray().length);
+    }
+}
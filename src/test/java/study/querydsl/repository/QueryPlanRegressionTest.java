@@ -0,0 +1,102 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.TeamNameResolver;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberPageOptions;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.metrics.SqlCaptureListener;
+import study.querydsl.support.QueryPlanGolden;
+
+import javax.persistence.EntityManager;
+import java.util.function.Supplier;
+
+/**
+ * 쿼리 모양별 SQL/실행 계획 회귀 테스트 (골든 파일: src/test/resources/query-plans).
+ * 인덱스를 안 타게 되거나 조인이 늘어나면 diff 와 함께 실패한다.
+ */
+@SpringBootTest
+@Transactional
+class QueryPlanRegressionTest {
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    SqlCaptureListener sqlCaptureListener;
+
+    @Autowired
+    TeamNameResolver teamNameResolver;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    QueryPlanGolden golden;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 20; i++) {
+            em.persist(new Member("member" + i, i * 5, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+        golden = new QueryPlanGolden(jdbcTemplate);
+    }
+
+    @Test
+    public void member_search_plans() throws Exception{
+        MemberSearchCondition byTeam = new MemberSearchCondition(null, "teamA", null, null);
+        MemberSearchCondition byUsername = new MemberSearchCondition("member1", null, null, null);
+        MemberSearchCondition byAge = new MemberSearchCondition(null, null, 20, 60);
+        MemberSearchCondition all = new MemberSearchCondition("member2", "teamA", 0, 60);
+        MemberSearchCondition byPrefix = new MemberSearchCondition();
+        byPrefix.setUsernamePrefix("member1");
+
+        // MemberJpaRepository
+        verify("jpa-search-team", () -> memberJpaRepository.search(byTeam));
+        verify("jpa-search-username", () -> memberJpaRepository.search(byUsername));
+        verify("jpa-search-age", () -> memberJpaRepository.search(byAge));
+        verify("jpa-search-all", () -> memberJpaRepository.search(all));
+        verify("jpa-search-prefix", () -> memberJpaRepository.search(byPrefix));
+        verify("jpa-search-builder-team", () -> memberJpaRepository.searchByBuilder(byTeam));
+
+        // MemberRepositoryImpl
+        verify("search-with-team", () -> memberRepository.searchWithTeam(byTeam));
+        verify("page-complex-team", () -> memberRepository.searchPageComplex(byTeam, PageRequest.of(1, 3)));
+        verify("page-complex-age", () -> memberRepository.searchPageComplex(byAge, PageRequest.of(1, 3)));
+        verify("page-complex-prefix", () -> memberRepository.searchPageComplex(byPrefix, PageRequest.of(1, 3)));
+        verify("page-complex-id-first", () -> memberRepository.searchPageComplex(byTeam, PageRequest.of(1, 3),
+                new MemberPageOptions(MemberPageOptions.PagingStrategy.ID_FIRST)));
+        verify("page-complex-estimated", () -> memberRepository.searchPageComplex(byAge, PageRequest.of(0, 3),
+                new MemberPageOptions(MemberPageOptions.CountMode.ESTIMATED)));
+        MemberTeamDto last = new MemberTeamDto(5L, "member5", 30, null, null);
+        verify("slice-id", () -> memberRepository.searchSlice(byTeam, MemberCursor.after(last, MemberCursor.SortKey.ID), 3));
+        verify("slice-age", () -> memberRepository.searchSlice(byAge, MemberCursor.after(last, MemberCursor.SortKey.AGE), 3));
+
+        golden.assertMatches();
+    }
+
+    // 팀명 -> id 캐시 상태에 따라 쿼리 수가 달라지지 않도록 매번 비움
+    private void verify(String shape, Supplier<?> query) {
+        teamNameResolver.invalidateAll();
+        golden.verify(shape, sqlCaptureListener.capture(query));
+    }
+}
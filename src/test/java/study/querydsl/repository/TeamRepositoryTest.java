@@ -0,0 +1,110 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamMemberStats;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.metrics.LazyLoadReport;
+import study.querydsl.metrics.NPlusOneDetector;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    NPlusOneDetector nPlusOneDetector;
+
+    @Test
+    public void batch_fetch_members() throws Exception{
+        // given
+        for (int t = 0; t < 3; t++) {
+            Team team = teamRepository.save(new Team("team" + t));
+            for (int i = 0; i < 2; i++) {
+                memberRepository.save(new Member("member" + t + "_" + i, i, team));
+            }
+        }
+        em.flush();
+        em.clear();
+
+        // when
+        nPlusOneDetector.begin();
+        int members = 0;
+        for (Team team : teamRepository.findAll()) {
+            members += team.getMembers().size();
+        }
+        LazyLoadReport report = nPlusOneDetector.end();
+
+        // then 팀 조회 1번 + members 를 IN 절로 한 번에
+        Assertions.assertEquals(6, members);
+        Assertions.assertEquals(2, report.getStatements());
+        Assertions.assertEquals(1, report.lazyLoadsOf(Team.class.getName() + ".members"));
+    }
+
+    @Test
+    public void team_stats() throws Exception{
+        // given
+        Team teamA = teamRepository.save(new Team("teamA"));
+        Team teamB = teamRepository.save(new Team("teamB"));
+        teamRepository.save(new Team("teamC"));
+        memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 20, teamA));
+        memberRepository.save(new Member("member3", 30, teamB));
+        memberRepository.save(new Member("member4", 40));
+        em.flush();
+        em.clear();
+
+        // when
+        List<TeamMemberStats> stats = teamRepository.findTeamStats();
+
+        // then 팀 이름순, 회원 없는 팀도 포함
+        Assertions.assertEquals(3, stats.size());
+        TeamMemberStats a = stats.get(0);
+        Assertions.assertEquals(teamA.getId(), a.getTeamId());
+        Assertions.assertEquals(2, a.getMemberCount());
+        Assertions.assertEquals(10, a.getMinAge());
+        Assertions.assertEquals(20, a.getMaxAge());
+        Assertions.assertEquals(15.0, a.getAvgAge());
+        Assertions.assertEquals(30L, a.getAgeSum());
+        Assertions.assertEquals(1, stats.get(1).getMemberCount());
+        Assertions.assertEquals(0, stats.get(2).getMemberCount());
+        Assertions.assertNull(stats.get(2).getAvgAge());
+        Assertions.assertNull(stats.get(2).getAgeSum());
+    }
+
+    @Test
+    public void team_stats_page() throws Exception{
+        // given
+        for (int t = 0; t < 5; t++) {
+            Team team = teamRepository.save(new Team("team" + t));
+            memberRepository.save(new Member("member" + t, t, team));
+        }
+        em.flush();
+        em.clear();
+
+        // when
+        Page<TeamMemberStats> page = teamRepository.findTeamStats(PageRequest.of(1, 2));
+
+        // then 페이징이 회원이 아니라 팀 단위
+        Assertions.assertEquals(5, page.getTotalElements());
+        Assertions.assertEquals(2, page.getContent().size());
+        Assertions.assertEquals("team2", page.getContent().get(0).getTeamName());
+        Assertions.assertEquals(1, page.getContent().get(0).getMemberCount());
+    }
+}
@@ -0,0 +1,93 @@
+package study.querydsl.service;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.BulkLoadResult;
+import study.querydsl.dto.MemberRow;
+import study.querydsl.entity.Team;
+import study.querydsl.event.MemberBulkChangedEvent;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.metrics.LazyLoadReport;
+import study.querydsl.metrics.NPlusOneDetector;
+
+import javax.persistence.EntityManager;
+import java.util.stream.IntStream;
+
+@SpringBootTest
+@Transactional
+@RecordApplicationEvents
+class MemberBulkLoaderTest {
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberBulkLoader memberBulkLoader;
+
+    @Autowired
+    NPlusOneDetector nPlusOneDetector;
+
+    @Autowired
+    ApplicationEvents events;
+
+    @Test
+    public void load() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.flush();
+        em.clear();
+        events.clear();
+
+        Integer batchSizeBefore = em.unwrap(Session.class).getJdbcBatchSize();
+        Team managed = em.find(Team.class, teamA.getId());
+
+        // when (배치 크기 1000 -> flush/clear 가 여러 번 일어나도록)
+        nPlusOneDetector.begin();
+        BulkLoadResult result = memberBulkLoader.load(IntStream.range(0, 2500)
+                .mapToObj(i -> new MemberRow("member" + i, i % 100, i % 3 == 0 ? null : i % 3 == 1 ? "teamA" : "teamB")));
+        LazyLoadReport report = nPlusOneDetector.end();
+
+        // then
+        Assertions.assertEquals(2500, result.getRows());
+        Assertions.assertEquals(1, result.getTeamsCreated());
+        Assertions.assertEquals(2500L, em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+        Assertions.assertEquals(833L, em.createQuery("select count(m) from Member m where m.team.name = 'teamA'", Long.class).getSingleResult());
+        Assertions.assertEquals(834L, em.createQuery("select count(m) from Member m where m.team is null", Long.class).getSingleResult());
+
+        // 팀 프록시는 FK 로만 쓰이고 초기화되지 않음, 변경 이벤트는 행마다가 아니라 한 번
+        Assertions.assertEquals(0, report.lazyLoadsOf(Team.class.getName()));
+        Assertions.assertEquals(1, events.stream(MemberChangedEvent.class).count());
+        Assertions.assertEquals(1, events.stream(MemberBulkChangedEvent.class).count());
+
+        // 테스트 트랜잭션에 참여했으므로 세션의 배치 크기는 원래대로, 호출한 쪽의 영속 엔티티도 그대로
+        Assertions.assertEquals(batchSizeBefore, em.unwrap(Session.class).getJdbcBatchSize());
+        Assertions.assertTrue(em.contains(managed));
+    }
+
+    @Test
+    public void joined_transaction_detaches_loaded_rows() throws Exception{
+        // given 테스트 트랜잭션(바깥 트랜잭션)에서 영속 상태인 팀
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.flush();
+        Session session = em.unwrap(Session.class);
+
+        // when 배치 크기(1000)를 넘는 행을 바깥 트랜잭션 안에서 적재
+        memberBulkLoader.load(IntStream.range(0, 2500)
+                .mapToObj(i -> new MemberRow("member" + i, i, i % 2 == 0 ? "teamA" : "teamB")));
+
+        // then 적재한 회원/새 팀은 배치마다 detach (영속성 컨텍스트에 쌓이지 않음), 호출한 쪽의 팀은 그대로 영속
+        Assertions.assertTrue(em.contains(teamA));
+        Assertions.assertEquals(1, session.getStatistics().getEntityCount());
+        Team teamB = em.createQuery("select t from Team t where t.name = 'teamB'", Team.class).getSingleResult();
+        Assertions.assertEquals(1250L, em.createQuery("select count(m) from Member m where m.team = :team", Long.class)
+                .setParameter("team", teamB)
+                .getSingleResult());
+    }
+}
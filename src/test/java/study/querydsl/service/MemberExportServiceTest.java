@@ -0,0 +1,100 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.io.StringWriter;
+
+@SpringBootTest
+@Transactional
+class MemberExportServiceTest {
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberExportService memberExportService;
+
+    @Test
+    public void export_csv() throws Exception{
+        // given
+        Team teamA = new Team("team,A");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+
+        StringWriter writer = new StringWriter();
+
+        // when
+        long count = memberExportService.export(
+                new MemberSearchCondition(null, null, 15, null), MemberExportService.Format.CSV, writer);
+
+        // then 회원 id 순
+        String[] lines = writer.toString().split("\n");
+        Assertions.assertEquals(2, count);
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertEquals("memberId,username,age,teamId,teamName", lines[0]);
+        Assertions.assertTrue(lines[1].endsWith(",member2,20," + teamA.getId() + ",\"team,A\""));
+        Assertions.assertTrue(lines[2].endsWith(",member3,30,,"));
+    }
+
+    @Test
+    public void export_csv_quotes_line_breaks() throws Exception{
+        // given
+        em.persist(new Member("cr\rmember", 10));
+        em.persist(new Member("lf\nmember", 10));
+
+        StringWriter writer = new StringWriter();
+
+        // when
+        memberExportService.export(new MemberSearchCondition(), MemberExportService.Format.CSV, writer);
+
+        // then \r 도 \n 처럼 따옴표로 감싸야 한 행으로 읽힘
+        String csv = writer.toString();
+        Assertions.assertTrue(csv.contains(",\"cr\rmember\",10,,"));
+        Assertions.assertTrue(csv.contains(",\"lf\nmember\",10,,"));
+    }
+
+    @Test
+    public void export_ndjson() throws Exception{
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+
+        StringWriter writer = new StringWriter();
+
+        // when
+        long count = memberExportService.export(new MemberSearchCondition(), MemberExportService.Format.NDJSON, writer);
+
+        // then
+        Assertions.assertEquals(1, count);
+        Assertions.assertTrue(writer.toString().contains("\"username\":\"member1\""));
+        Assertions.assertTrue(writer.toString().contains("\"teamName\":\"teamA\""));
+    }
+
+    @Test
+    public void export_keeps_caller_entities_managed() throws Exception{
+        // given
+        Member member1 = new Member("member1", 10);
+        em.persist(member1);
+        for (int i = 0; i < 1500; i++) {
+            em.persist(new Member("bulk" + i, i));
+        }
+        em.flush();
+
+        // when 바깥 트랜잭션에 참여 -> FLUSH_INTERVAL 을 넘겨도 clear 하지 않음
+        long count = memberExportService.export(new MemberSearchCondition(), MemberExportService.Format.CSV, new StringWriter());
+
+        // then
+        Assertions.assertTrue(count >= 1501);
+        Assertions.assertTrue(em.contains(member1));
+    }
+}
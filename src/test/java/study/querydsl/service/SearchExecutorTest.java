@@ -0,0 +1,60 @@
+package study.querydsl.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import study.querydsl.metrics.NPlusOneDetector;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class SearchExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SearchExecutor searchExecutor = new SearchExecutor(
+            1, 4, new NPlusOneDetector(null, 10, false), meterRegistry);
+
+    @AfterEach
+    public void shutdown() {
+        searchExecutor.shutdown();
+    }
+
+    @Test
+    public void runs_off_request_thread() throws Exception{
+        Thread requestThread = Thread.currentThread();
+
+        Thread worker = searchExecutor.submit("v1", Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertNotSame(requestThread, worker);
+    }
+
+    @Test
+    public void bulkhead_rejects_over_limit() throws Exception{
+        // given 한도 1 -> 첫 검색이 끝나지 않은 상태
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = searchExecutor.submit("v1", () -> {
+            await(release);
+            return "done";
+        });
+
+        // then 같은 엔드포인트는 거절, 다른 엔드포인트는 별도 한도
+        Assertions.assertThrows(SearchRejectedException.class, () -> searchExecutor.submit("v1", () -> "rejected"));
+        Assertions.assertEquals("v2", searchExecutor.submit("v2", () -> "v2").get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1.0, meterRegistry.get("querydsl.search.rejected").tag("endpoint", "v1").counter().count());
+
+        // 끝나면 다시 받음
+        release.countDown();
+        Assertions.assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("ok", searchExecutor.submit("v1", () -> "ok").get(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package study.querydsl.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 쿼리 모양별 SQL + H2 EXPLAIN 결과를 골든 파일(src/test/resources/query-plans/{shape}.txt)과 비교.
+ * - 다르거나 골든 파일이 없으면 build/reports/query-plans 에 actual 파일과 diff 를 남기고 assertMatches 에서 실패
+ * - -Dquery-plans.update=true 면 골든 파일을 지금 결과로 만들거나 덮어씀 (새 모양을 추가했거나 의도한 변경일 때)
+ *
+ * 리터럴 값(id, 이름 등)과 H2 가 붙이는 객체 번호(PRIMARY_KEY_2 등)는 ? 로 바꿔서 비교하므로
+ * 시퀀스 값이나 테스트 실행 순서가 달라져도 흔들리지 않는다.
+ */
+public class QueryPlanGolden {
+
+    private static final Path GOLDEN_DIR = Path.of("src/test/resources/query-plans");
+    private static final Path REPORT_DIR = Path.of("build/reports/query-plans");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean update = Boolean.getBoolean("query-plans.update");
+    private final Map<String, String> diffs = new LinkedHashMap<>();
+
+    public QueryPlanGolden(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void verify(String shape, List<String> statements) {
+        String actual = render(statements);
+        Path golden = GOLDEN_DIR.resolve(shape + ".txt");
+        try {
+            if (update) {
+                Files.createDirectories(GOLDEN_DIR);
+                Files.writeString(golden, actual);
+                return;
+            }
+            // 골든 파일이 없으면 빈 기대값과 비교 -> 실패 (새로 추가한 모양은 update 로 만들어서 커밋)
+            String expected = Files.exists(golden) ? Files.readString(golden) : "";
+            if (!expected.equals(actual)) {
+                String diff = diff(expected, actual);
+                diffs.put(shape, diff);
+                Files.createDirectories(REPORT_DIR);
+                Files.writeString(REPORT_DIR.resolve(shape + ".actual.txt"), actual);
+                Files.writeString(REPORT_DIR.resolve(shape + ".diff"), diff);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void assertMatches() {
+        if (diffs.isEmpty()) {
+            return;
+        }
+        String report = diffs.entrySet().stream()
+                .map(entry -> "=== " + entry.getKey() + "\n" + entry.getValue())
+                .collect(Collectors.joining("\n"));
+        try {
+            Files.createDirectories(REPORT_DIR);
+            Files.writeString(REPORT_DIR.resolve("report.txt"), report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        throw new AssertionError("query plans changed for " + diffs.keySet()
+                + " (report: " + REPORT_DIR.resolve("report.txt") + ", rerun with -Pquery-plans.update=true if intended)\n" + report);
+    }
+
+    private String render(List<String> statements) {
+        StringBuilder rendered = new StringBuilder();
+        for (int i = 0; i < statements.size(); i++) {
+            String sql = statements.get(i);
+            String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+            rendered.append("-- statement ").append(i + 1).append('\n')
+                    .append(normalize(sql)).append('\n')
+                    .append("-- plan\n")
+                    .append(normalize(plan)).append("\n\n");
+        }
+        return rendered.toString();
+    }
+
+    static String normalize(String text) {
+        return text
+                .replaceAll("'[^']*'", "'?'")
+                .replaceAll("\\b\\d+\\b", "?")
+                .replaceAll("(?<=_)\\d+\\b", "?")
+                .replaceAll("[ \\t]+", " ")
+                .replaceAll(" *\\n *", "\n")
+                .trim();
+    }
+
+    // 줄 단위 LCS diff (- 골든, + 현재)
+    static String diff(String expected, String actual) {
+        List<String> a = Arrays.asList(expected.split("\n"));
+        List<String> b = Arrays.asList(actual.split("\n"));
+        int[][] lcs = new int[a.size() + 1][b.size() + 1];
+        for (int i = a.size() - 1; i >= 0; i--) {
+            for (int j = b.size() - 1; j >= 0; j--) {
+                lcs[i][j] = a.get(i).equals(b.get(j)) ? lcs[i + 1][j + 1] + 1 : Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            if (a.get(i).equals(b.get(j))) {
+                lines.add("  " + a.get(i++));
+                j++;
+            } else if (lcs[i + 1][j] >= lcs[i][j + 1]) {
+                lines.add("- " + a.get(i++));
+            } else {
+                lines.add("+ " + b.get(j++));
+            }
+        }
+        while (i < a.size()) {
+            lines.add("- " + a.get(i++));
+        }
+        while (j < b.size()) {
+            lines.add("+ " + b.get(j++));
+        }
+        return String.join("\n", lines) + "\n";
+    }
+}